@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+# Measures the startup time of the application in each step of the prod startup profile, see docs/fast-startup.md.
+#
+#   mvn -Pprod package -DskipTests && scripts/measure-startup.sh [runs]
+#
+# Every configuration starts the same extracted jar, on the same JVM, [runs] times (5 by default). A run is the
+# "process running for" time Spring Boot logs once the application is started, which counts from the JVM launch.
+# Medians and minimums are printed, and every run is written to target/startup/results.csv.
+set -euo pipefail
+
+RUNS=${1:-5}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/target/startup"
+JAR_NAME=Hospital-0.0.1-SNAPSHOT.jar
+JAR="$OUT/app/$JAR_NAME"
+ARCHIVE="$OUT/app.jsa"
+TIMEOUT_SECONDS=180
+
+if ! unzip -l "$ROOT/target/$JAR_NAME" 2>/dev/null | grep -c 'HospitalApplication__ApplicationContextInitializer' > /dev/null; then
+    echo "target/$JAR_NAME has no AOT classes: build it with mvn -Pprod package -DskipTests" >&2
+    exit 1
+fi
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+java -Djarmode=tools -jar "$ROOT/target/$JAR_NAME" extract --destination "$OUT/app" > /dev/null
+
+PROD=(--spring.profiles.active=prod)
+AOT=(-Dspring.aot.enabled=true)
+
+# Training run of the CDS archive: the classes loaded up to the refresh of the context are dumped when it exits
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.context.exit=onRefresh "${AOT[@]}" -jar "$JAR" "${PROD[@]}" \
+    > "$OUT/training.log" 2>&1
+
+# Prints the seconds from the JVM launch to the started application
+start_once() {
+    local log="$OUT/run.log"
+    java "$@" > "$log" 2>&1 &
+    local pid=$!
+    local elapsed=""
+    for _ in $(seq 1 $((TIMEOUT_SECONDS * 10))); do
+        elapsed=$(grep -a -o 'process running for [0-9.]*' "$log" | grep -o '[0-9.]*$' || true)
+        if [[ -n "$elapsed" ]] || ! kill -0 "$pid" 2> /dev/null; then
+            break
+        fi
+        sleep 0.1
+    done
+    kill "$pid" 2> /dev/null || true
+    wait "$pid" 2> /dev/null || true
+    if [[ -z "$elapsed" ]]; then
+        echo "The application did not start, see $log" >&2
+        exit 1
+    fi
+    echo "$elapsed"
+}
+
+measure() {
+    local name=$1
+    shift
+    local times=()
+    for run in $(seq 1 "$RUNS"); do
+        local elapsed
+        elapsed=$(start_once "$@")
+        times+=("$elapsed")
+        echo "$name,$run,$elapsed" >> "$OUT/results.csv"
+    done
+    printf '%s\n' "${times[@]}" | sort -n | awk -v name="$name" '
+        { t[NR] = $1 }
+        END { printf "%-22s median %6.2f s   min %6.2f s\n", name, (NR % 2 ? t[(NR + 1) / 2] : (t[NR / 2] + t[NR / 2 + 1]) / 2), t[1] }'
+}
+
+PORTS=(--server.port=0 --management.server.port=0)
+
+echo "configuration,run,seconds" > "$OUT/results.csv"
+echo "$RUNS runs of each configuration on $(java -version 2>&1 | head -1)"
+measure default -jar "$JAR" "${PORTS[@]}"
+measure prod -jar "$JAR" "${PROD[@]}" "${PORTS[@]}"
+measure prod+aot "${AOT[@]}" -jar "$JAR" "${PROD[@]}" "${PORTS[@]}"
+measure prod+aot+cds -XX:SharedArchiveFile="$ARCHIVE" "${AOT[@]}" -jar "$JAR" "${PROD[@]}" "${PORTS[@]}"
@@ -0,0 +1,83 @@
+package com.olvera.hospital.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olvera.hospital.admission.AdmissionControlFilter;
+import com.olvera.hospital.admission.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of admitting a request through {@link AdmissionControlFilter}, for one client and for many clients at once.
+ * The budgets are high enough that every request is admitted: this is the price every request pays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AdmissionControlBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+
+        private final AtomicInteger clients = new AtomicInteger();
+
+        private AdmissionControlFilter filter;
+
+        @Setup
+        public void setUp() {
+            filter = new AdmissionControlFilter(
+                    new AdmissionProperties(true, 1e9, 1_000_000, 1_000, 1e9, 1_000_000, 1_000),
+                    new ObjectMapper(), new SimpleMeterRegistry());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private MockHttpServletRequest request;
+
+        private MockHttpServletResponse response;
+
+        @Setup
+        public void setUp(Limiter limiter) {
+            request = new MockHttpServletRequest("GET", "/api/appointment/filter");
+            request.setRemoteAddr("10.0.0." + limiter.clients.incrementAndGet());
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Benchmark
+    public void admitted(Limiter limiter, Client client, Blackhole blackhole) throws ServletException, IOException {
+        // The attribute OncePerRequestFilter marks a request with would skip the filter the second time
+        client.request.clearAttributes();
+        FilterChain chain = (request, response) -> blackhole.consume(request);
+        limiter.filter.doFilter(client.request, client.response, chain);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void admittedConcurrently(Limiter limiter, Client client, Blackhole blackhole)
+            throws ServletException, IOException {
+        admitted(limiter, client, blackhole);
+    }
+}
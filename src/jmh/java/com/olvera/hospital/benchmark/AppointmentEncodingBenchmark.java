@@ -0,0 +1,90 @@
+package com.olvera.hospital.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.encoding.AppointmentBinaryEncoder;
+import com.olvera.hospital.encoding.AppointmentBinaryFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a bulk export as the newline-delimited JSON of the export endpoint and as the
+ * {@link AppointmentBinaryFormat}. The size of both encodings is printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AppointmentEncodingBenchmark {
+
+    @Param({"10000"})
+    private int appointments;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    private List<AppointmentDto> export;
+
+    @Setup
+    public void setUp() throws IOException {
+        export = new ArrayList<>(appointments);
+        for (int n = 0; n < appointments; n++) {
+            export.add(AppointmentDto.builder()
+                    .id((long) n + 1_000_000)
+                    .doctorId(BenchmarkDataset.doctorId(n))
+                    .consultingRoomId(BenchmarkDataset.consultingRoomId(n))
+                    .consultationTime(BenchmarkDataset.consultationTime(n))
+                    .patientName(BenchmarkDataset.patientName(n))
+                    .build());
+        }
+
+        int json = json();
+        int binary = binary();
+        System.out.printf("%n%d appointments: JSON %d bytes (%.1f per appointment), binary %d bytes " +
+                        "(%.1f per appointment, %.1f%% of JSON)%n", appointments, json, (double) json / appointments,
+                binary, (double) binary / appointments, 100.0 * binary / json);
+    }
+
+    @Benchmark
+    public int json() throws IOException {
+        out.reset();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (AppointmentDto appointment : export) {
+                objectMapper.writeValue(generator, appointment);
+                generator.writeRaw('\n');
+            }
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int binary() throws IOException {
+        out.reset();
+        AppointmentBinaryEncoder encoder = new AppointmentBinaryEncoder(out);
+        for (AppointmentDto appointment : export) {
+            encoder.write(appointment);
+        }
+        encoder.finish();
+        return out.size();
+    }
+}
@@ -0,0 +1,75 @@
+package com.olvera.hospital.benchmark;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.entity.Doctor;
+import com.olvera.hospital.mapper.AppointmentMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.olvera.hospital.util.AppointmentStatus.PENDING;
+
+/**
+ * Cost of the {@link AppointmentMapper} conversions, alone and over a page of the filter endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AppointmentMapperBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private Appointment appointment;
+
+    private AppointmentDto appointmentDto;
+
+    private List<Appointment> page;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>();
+        for (int n = 0; n < PAGE_SIZE; n++) {
+            page.add(Appointment.builder()
+                    .id((long) n + 1)
+                    .doctor(Doctor.builder().id(BenchmarkDataset.doctorId(n)).build())
+                    .consultingRoom(ConsultingRoom.builder().id(BenchmarkDataset.consultingRoomId(n)).build())
+                    .consultationTime(BenchmarkDataset.consultationTime(n))
+                    .patientName(BenchmarkDataset.patientName(n))
+                    .status(PENDING)
+                    .build());
+        }
+        appointment = page.get(0);
+        appointmentDto = AppointmentMapper.toDto(appointment);
+    }
+
+    @Benchmark
+    public AppointmentDto toDto() {
+        return AppointmentMapper.toDto(appointment);
+    }
+
+    @Benchmark
+    public Appointment toEntity() {
+        return AppointmentMapper.toEntity(appointmentDto);
+    }
+
+    @Benchmark
+    public List<AppointmentDto> toDtoPage() {
+        return page.stream().map(AppointmentMapper::toDto).toList();
+    }
+}
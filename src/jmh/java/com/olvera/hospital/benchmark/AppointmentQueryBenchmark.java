@@ -0,0 +1,196 @@
+package com.olvera.hospital.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the booking rule queries of {@code AppointmentRepository} on the table Hibernate used to generate
+ * with {@code ddl-auto} (primary key and foreign keys only) against the table created by the Flyway migrations.
+ * The SQL is the one Hibernate generated for the repository queries when each rule was a query of its own;
+ * {@link #countBookingRuleConflicts()} is the single statement that now checks them all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AppointmentQueryBenchmark {
+
+    private static final String DDL_AUTO_APPOINTMENT_TABLE = """
+            create table appointment (id bigint generated by default as identity, consultation_time timestamp(6),
+                patient_name varchar(255), status varchar(20), consulting_room_id bigint, doctor_id bigint,
+                primary key (id));
+            alter table appointment add constraint fk_appointment_room foreign key (consulting_room_id)
+                references consulting_room;
+            alter table appointment add constraint fk_appointment_doctor foreign key (doctor_id) references doctor;
+            """;
+
+    @Param({"10000", "100000", "1000000"})
+    private int appointments;
+
+    @Param({"ddl-auto", "migrations"})
+    private String schema;
+
+    private Connection connection;
+
+    private PreparedStatement existsByRoom;
+
+    private PreparedStatement existsByDoctor;
+
+    private PreparedStatement findByPatient;
+
+    private PreparedStatement countByDoctor;
+
+    private PreparedStatement countRuleConflicts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:query-benchmark;DB_CLOSE_DELAY=-1";
+
+        if (schema.equals("ddl-auto")) {
+            Flyway.configure().dataSource(url, "sa", "").target("1").load().migrate();
+        } else {
+            Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        }
+
+        connection = DriverManager.getConnection(url, "sa", "");
+        if (schema.equals("ddl-auto")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(DDL_AUTO_APPOINTMENT_TABLE);
+            }
+        }
+        BenchmarkDataset.seed(connection, appointments);
+
+        existsByRoom = connection.prepareStatement("select count(a.id)>0 from appointment a " +
+                "where a.consulting_room_id=? and a.consultation_time=? and a.status<>'CANCELLED'");
+        existsByDoctor = connection.prepareStatement("select count(a.id)>0 from appointment a " +
+                "where a.doctor_id=? and a.consultation_time=? and a.status<>'CANCELLED'");
+        findByPatient = connection.prepareStatement("select a.consultation_time from appointment a " +
+                "where a.patient_name=? and a.consultation_time between ? and ? and a.status<>'CANCELLED'");
+        countByDoctor = connection.prepareStatement("select count(a.id) from appointment a " +
+                "where a.doctor_id=? and a.consultation_time between ? and ? and a.status<>'CANCELLED'");
+        countRuleConflicts = connection.prepareStatement("SELECT " +
+                "(SELECT COUNT(*) FROM appointment a WHERE a.consulting_room_id = ? " +
+                "AND a.consultation_time = ? AND a.status <> 'CANCELLED') AS roomBookings, " +
+                "(SELECT COUNT(*) FROM appointment a WHERE a.doctor_id = ? " +
+                "AND a.consultation_time = ? AND a.status <> 'CANCELLED') AS doctorBookings, " +
+                "(SELECT COUNT(*) FROM appointment a WHERE a.patient_name = ? " +
+                "AND a.consultation_time BETWEEN ? AND ? " +
+                "AND a.consultation_time > ? AND a.consultation_time < ? " +
+                "AND a.status <> 'CANCELLED') AS patientBookingsTooClose, " +
+                "(SELECT COUNT(*) FROM appointment a WHERE a.doctor_id = ? " +
+                "AND a.consultation_time BETWEEN ? AND ? AND a.status <> 'CANCELLED') AS doctorDayBookings");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean existsActiveByConsultingRoomIdAndConsultationTime() throws SQLException {
+        int appointment = randomAppointment();
+        existsByRoom.setLong(1, BenchmarkDataset.consultingRoomId(appointment));
+        existsByRoom.setTimestamp(2, Timestamp.valueOf(BenchmarkDataset.consultationTime(appointment)));
+        try (ResultSet resultSet = existsByRoom.executeQuery()) {
+            resultSet.next();
+            return resultSet.getBoolean(1);
+        }
+    }
+
+    @Benchmark
+    public boolean existsActiveByDoctorIdAndConsultationTime() throws SQLException {
+        int appointment = randomAppointment();
+        existsByDoctor.setLong(1, BenchmarkDataset.doctorId(appointment));
+        existsByDoctor.setTimestamp(2, Timestamp.valueOf(BenchmarkDataset.consultationTime(appointment)));
+        try (ResultSet resultSet = existsByDoctor.executeQuery()) {
+            resultSet.next();
+            return resultSet.getBoolean(1);
+        }
+    }
+
+    @Benchmark
+    public int findActiveConsultationTimesByPatientName() throws SQLException {
+        int appointment = randomAppointment();
+        LocalDateTime startOfDay = BenchmarkDataset.consultationTime(appointment).toLocalDate().atStartOfDay();
+        findByPatient.setString(1, BenchmarkDataset.patientName(appointment));
+        findByPatient.setTimestamp(2, Timestamp.valueOf(startOfDay));
+        findByPatient.setTimestamp(3, Timestamp.valueOf(startOfDay.plusDays(1)));
+
+        int rows = 0;
+        try (ResultSet resultSet = findByPatient.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public long countActiveByDoctorIdAndConsultationTimeBetween() throws SQLException {
+        int appointment = randomAppointment();
+        LocalDateTime startOfDay = BenchmarkDataset.consultationTime(appointment).toLocalDate().atStartOfDay();
+        countByDoctor.setLong(1, BenchmarkDataset.doctorId(appointment));
+        countByDoctor.setTimestamp(2, Timestamp.valueOf(startOfDay));
+        countByDoctor.setTimestamp(3, Timestamp.valueOf(startOfDay.plusDays(1)));
+        try (ResultSet resultSet = countByDoctor.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public long countBookingRuleConflicts() throws SQLException {
+        int appointment = randomAppointment();
+        LocalDateTime time = BenchmarkDataset.consultationTime(appointment);
+        Timestamp startOfDay = Timestamp.valueOf(time.toLocalDate().atStartOfDay());
+        Timestamp endOfDay = Timestamp.valueOf(time.toLocalDate().plusDays(1).atStartOfDay());
+        countRuleConflicts.setLong(1, BenchmarkDataset.consultingRoomId(appointment));
+        countRuleConflicts.setTimestamp(2, Timestamp.valueOf(time));
+        countRuleConflicts.setLong(3, BenchmarkDataset.doctorId(appointment));
+        countRuleConflicts.setTimestamp(4, Timestamp.valueOf(time));
+        countRuleConflicts.setString(5, BenchmarkDataset.patientName(appointment));
+        countRuleConflicts.setTimestamp(6, startOfDay);
+        countRuleConflicts.setTimestamp(7, endOfDay);
+        countRuleConflicts.setTimestamp(8, Timestamp.valueOf(time.minusHours(2)));
+        countRuleConflicts.setTimestamp(9, Timestamp.valueOf(time.plusHours(2)));
+        countRuleConflicts.setLong(10, BenchmarkDataset.doctorId(appointment));
+        countRuleConflicts.setTimestamp(11, startOfDay);
+        countRuleConflicts.setTimestamp(12, endOfDay);
+        try (ResultSet resultSet = countRuleConflicts.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1) + resultSet.getLong(2) + resultSet.getLong(3) + resultSet.getLong(4);
+        }
+    }
+
+    private int randomAppointment() {
+        return ThreadLocalRandom.current().nextInt(appointments);
+    }
+}
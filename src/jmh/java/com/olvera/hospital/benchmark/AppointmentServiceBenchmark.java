@@ -0,0 +1,217 @@
+package com.olvera.hospital.benchmark;
+
+import com.olvera.hospital.HospitalApplication;
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.scheduling.OccupancyIndex;
+import com.olvera.hospital.service.IAppointmentService;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs the {@code AppointmentServiceImpl} hot paths inside the real application context, on a database seeded
+ * with appointments from tomorrow onwards. With {@code rules=index} the booking rules are answered by the
+ * occupancy index as in production; with {@code rules=database} the index covers nothing, so every rule falls
+ * back to its repository query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AppointmentServiceBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:service-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final Pageable PAGE = PageRequest.of(0, 50, Sort.by("consultationTime"));
+
+    @Param({"10000", "100000", "1000000"})
+    private int appointments;
+
+    @Param({"index", "database"})
+    private String rules;
+
+    private ConfigurableApplicationContext context;
+
+    private IAppointmentService appointmentService;
+
+    private OccupancyIndex occupancyIndex;
+
+    private Connection connection;
+
+    private LocalDateTime firstSlot;
+
+    private int fullDays;
+
+    private long lastSeededId;
+
+    private long editedId;
+
+    private int created;
+
+    private boolean moved;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        firstSlot = LocalDate.now().plusDays(1).atTime(BenchmarkDataset.FIRST_SLOT.toLocalTime());
+        fullDays = appointments / (BenchmarkDataset.DOCTORS * BenchmarkDataset.SLOTS_PER_DAY);
+
+        Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+        connection = DriverManager.getConnection(URL, "sa", "");
+        BenchmarkDataset.seed(connection, appointments, firstSlot);
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM appointment")) {
+            resultSet.next();
+            lastSeededId = resultSet.getLong(1);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id FROM appointment WHERE doctor_id = ? AND consultation_time = ?")) {
+            statement.setLong(1, BenchmarkDataset.doctorId(0));
+            statement.setTimestamp(2, Timestamp.valueOf(firstSlot));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                editedId = resultSet.getLong(1);
+            }
+        }
+
+        // Devtools is on the runtime classpath: keep it from restarting the context or shutting the database down
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(HospitalApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--spring.datasource.url=" + URL,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.autoconfigure.exclude="
+                                + "org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                        "--logging.level.root=WARN");
+
+        appointmentService = context.getBean(IAppointmentService.class);
+        occupancyIndex = context.getBean(OccupancyIndex.class);
+        if (rules.equals("database")) {
+            occupancyIndex.rebuild(LocalDate.MAX, Stream.empty());
+        }
+    }
+
+    /**
+     * Drop the appointments booked during the iteration so every iteration starts from the seeded dataset.
+     */
+    @TearDown(Level.Iteration)
+    public void removeCreatedAppointments() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM appointment WHERE id > ?")) {
+            statement.setLong(1, lastSeededId);
+            statement.executeUpdate();
+        }
+        for (int n = appointments; n < appointments + created; n++) {
+            occupancyIndex.remove(BenchmarkDataset.doctorId(n), BenchmarkDataset.consultingRoomId(n),
+                    BenchmarkDataset.patientName(n), BenchmarkDataset.consultationTime(firstSlot, n));
+        }
+        created = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+        context.close();
+    }
+
+    /**
+     * Book the next free slot of the dataset: every rule passes and the appointment is inserted.
+     */
+    @Benchmark
+    public Appointment createAppointment() {
+        int appointment = appointments + created++;
+        return appointmentService.createAppointment(AppointmentDto.builder()
+                .doctorId(BenchmarkDataset.doctorId(appointment))
+                .consultingRoomId(BenchmarkDataset.consultingRoomId(appointment))
+                .consultationTime(BenchmarkDataset.consultationTime(firstSlot, appointment))
+                .patientName(BenchmarkDataset.patientName(appointment))
+                .build());
+    }
+
+    /**
+     * Book a free room and time with a doctor whose day is full: every rule is checked and the last one,
+     * the daily cap, rejects the booking.
+     */
+    @Benchmark
+    public String rejectFullyBookedDoctor() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long doctorId = random.nextInt(BenchmarkDataset.DOCTORS) + 1;
+        try {
+            appointmentService.createAppointment(AppointmentDto.builder()
+                    .doctorId(doctorId)
+                    .consultingRoomId(doctorId)
+                    .consultationTime(firstSlot.plusDays(random.nextInt(fullDays)).minusMinutes(30))
+                    .patientName("Benchmark Patient")
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        throw new IllegalStateException("The daily cap did not reject the booking");
+    }
+
+    @Benchmark
+    public Slice<AppointmentDto> filterByDoctorAndDay() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime day = firstSlot.toLocalDate().plusDays(random.nextInt(fullDays)).atStartOfDay();
+        return appointmentService.filterAppointments((long) random.nextInt(BenchmarkDataset.DOCTORS) + 1, null,
+                day, day.plusDays(1), PAGE);
+    }
+
+    @Benchmark
+    public Slice<AppointmentDto> filterByDoctor() {
+        long doctorId = ThreadLocalRandom.current().nextInt(BenchmarkDataset.DOCTORS) + 1;
+        return appointmentService.filterAppointments(doctorId, null, null, null, PAGE);
+    }
+
+    /**
+     * Move a seeded appointment half an hour back and forth, which keeps it clear of every other booking.
+     */
+    @Benchmark
+    public AppointmentDto editAppointment() {
+        moved = !moved;
+        return appointmentService.editAppointment(editedId, AppointmentDto.builder()
+                .doctorId(BenchmarkDataset.doctorId(0))
+                .consultingRoomId(BenchmarkDataset.consultingRoomId(0))
+                .consultationTime(moved ? firstSlot.plusMinutes(30) : firstSlot)
+                .patientName(BenchmarkDataset.patientName(0))
+                .build());
+    }
+}
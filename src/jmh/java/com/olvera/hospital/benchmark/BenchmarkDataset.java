@@ -0,0 +1,101 @@
+package com.olvera.hospital.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Deterministic appointment dataset shared by the benchmarks. Appointment {@code n} is attended by doctor
+ * {@code n % DOCTORS + 1} in the room with the same number, and every doctor gets {@link #SLOTS_PER_DAY}
+ * hourly slots per day, so the seeded rows respect every booking rule and unique constraint.
+ * Slots start at {@link #FIRST_SLOT} unless another first slot is given.
+ */
+public final class BenchmarkDataset {
+
+    public static final int DOCTORS = 50;
+
+    public static final int ROOMS = 50;
+
+    public static final int SLOTS_PER_DAY = 8;
+
+    public static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2020, 1, 1, 9, 0);
+
+    private static final int PATIENTS = 20_000;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String[] SPECIALTIES = {"Cardiology", "Pediatrics", "Dermatology", "Neurology", "Orthopedics"};
+
+    private BenchmarkDataset() {
+    }
+
+    public static long doctorId(int appointment) {
+        return appointment % DOCTORS + 1;
+    }
+
+    public static long consultingRoomId(int appointment) {
+        return appointment % ROOMS + 1;
+    }
+
+    public static LocalDateTime consultationTime(int appointment) {
+        return consultationTime(FIRST_SLOT, appointment);
+    }
+
+    public static LocalDateTime consultationTime(LocalDateTime firstSlot, int appointment) {
+        int slot = appointment / DOCTORS;
+        return firstSlot.plusDays(slot / SLOTS_PER_DAY).plusHours(slot % SLOTS_PER_DAY);
+    }
+
+    public static String patientName(int appointment) {
+        return "Patient " + appointment % PATIENTS;
+    }
+
+    /**
+     * Top up the reference tables to {@link #DOCTORS} doctors and {@link #ROOMS} rooms and insert
+     * the given number of pending appointments.
+     */
+    public static void seed(Connection connection, int appointments) throws SQLException {
+        seed(connection, appointments, FIRST_SLOT);
+    }
+
+    public static void seed(Connection connection, int appointments, LocalDateTime firstSlot) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO doctor (first_name, last_name, specialty) " +
+                    "SELECT 'Doctor', CAST(X AS VARCHAR), '" + SPECIALTIES[0] + "' FROM SYSTEM_RANGE(1, " + DOCTORS + ") " +
+                    "WHERE X > (SELECT COUNT(*) FROM doctor)");
+            statement.executeUpdate("INSERT INTO consulting_room (room_number, floor) " +
+                    "SELECT CAST(1000 + X AS VARCHAR), '9' FROM SYSTEM_RANGE(1, " + ROOMS + ") " +
+                    "WHERE X > (SELECT COUNT(*) FROM consulting_room)");
+            for (int i = 0; i < DOCTORS; i++) {
+                statement.executeUpdate("UPDATE doctor SET specialty = '" + SPECIALTIES[i % SPECIALTIES.length] +
+                        "' WHERE id = " + (i + 1));
+            }
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO appointment (doctor_id, consulting_room_id, consultation_time, patient_name, status) " +
+                        "VALUES (?, ?, ?, ?, 'PENDING')")) {
+            for (int n = 0; n < appointments; n++) {
+                insert.setLong(1, doctorId(n));
+                insert.setLong(2, consultingRoomId(n));
+                insert.setTimestamp(3, Timestamp.valueOf(consultationTime(firstSlot, n)));
+                insert.setString(4, patientName(n));
+                insert.addBatch();
+
+                if ((n + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        connection.commit();
+        connection.setAutoCommit(autoCommit);
+    }
+}
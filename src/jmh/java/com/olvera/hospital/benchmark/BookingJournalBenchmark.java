@@ -0,0 +1,185 @@
+package com.olvera.hospital.benchmark;
+
+import com.olvera.hospital.journal.JournalRecord;
+import com.olvera.hospital.journal.JournalSlot;
+import com.olvera.hospital.journal.JournalStore;
+import com.olvera.hospital.util.AppointmentChangeType;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Time to append a journal of millions of booking changes, and to rebuild the booked slots on startup from it:
+ * replaying every segment, replaying the snapshot written when the last segment was sealed, and, as the baseline,
+ * reading the same slots from an appointment table of that size. Every tenth change cancels an earlier booking.
+ * <p>
+ * The baseline is the plain JDBC query behind {@code streamBookedSlotsFrom}, without Hibernate, so it is a lower
+ * bound for any scan of the table through the repository.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BookingJournalBenchmark {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final long RECORDED_AT = 1_700_000_000_000L;
+
+    @Param({"1000000", "5000000"})
+    private int events;
+
+    private Path segments;
+
+    private Path snapshot;
+
+    private Path appended;
+
+    private Connection connection;
+
+    private PreparedStatement scan;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        segments = Files.createTempDirectory("journal-segments");
+        try (JournalStore store = open(segments, slot -> { }, record -> { })) {
+            append(store);
+        }
+
+        snapshot = Files.createTempDirectory("journal-snapshot");
+        Map<Long, JournalSlot> booked = new HashMap<>();
+        try (JournalStore store = open(snapshot, slot -> { }, record -> { })) {
+            append(store);
+            store.roll();
+            for (int n = 0; n < events; n++) {
+                JournalRecord record = record(n);
+                if (record.booked()) {
+                    booked.put(record.slot().appointmentId(), record.slot());
+                } else {
+                    booked.remove(record.slot().appointmentId());
+                }
+            }
+            store.writeSnapshot(store.segment() - 1, booked.values());
+        }
+
+        String url = "jdbc:h2:mem:journal-benchmark;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        BenchmarkDataset.seed(connection, events);
+        scan = connection.prepareStatement("select a.id, a.doctor_id, a.consulting_room_id, a.patient_name, " +
+                "a.consultation_time from appointment a where a.consultation_time>=? and a.status<>'CANCELLED'");
+    }
+
+    @Setup(Level.Invocation)
+    public void createAppendDirectory() throws IOException {
+        appended = Files.createTempDirectory("journal-append");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteAppendDirectory() throws IOException {
+        delete(appended);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        delete(segments);
+        delete(snapshot);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long appendEvents() throws IOException {
+        try (JournalStore store = open(appended, slot -> { }, record -> { })) {
+            append(store);
+            store.force();
+            return store.segment();
+        }
+    }
+
+    @Benchmark
+    public void replaySegments(Blackhole blackhole) throws IOException {
+        open(segments, blackhole::consume, blackhole::consume).close();
+    }
+
+    @Benchmark
+    public void replaySnapshot(Blackhole blackhole) throws IOException {
+        open(snapshot, blackhole::consume, blackhole::consume).close();
+    }
+
+    @Benchmark
+    public void scanDatabase(Blackhole blackhole) throws SQLException {
+        scan.setTimestamp(1, Timestamp.valueOf(BenchmarkDataset.FIRST_SLOT));
+        try (ResultSet resultSet = scan.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(new JournalSlot(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3),
+                        resultSet.getTimestamp(5).toLocalDateTime(), resultSet.getString(4)));
+            }
+        }
+    }
+
+    private void append(JournalStore store) throws IOException {
+        for (int n = 0; n < events; n++) {
+            store.append(record(n));
+        }
+    }
+
+    private static JournalRecord record(int n) {
+        if (n % 10 == 9) {
+            return new JournalRecord(AppointmentChangeType.CANCELLED, RECORDED_AT + n, slot(n - 5));
+        }
+        return new JournalRecord(AppointmentChangeType.CREATED, RECORDED_AT + n, slot(n));
+    }
+
+    private static JournalSlot slot(int appointment) {
+        return new JournalSlot(appointment + 1, BenchmarkDataset.doctorId(appointment),
+                BenchmarkDataset.consultingRoomId(appointment), BenchmarkDataset.consultationTime(appointment),
+                BenchmarkDataset.patientName(appointment));
+    }
+
+    private static JournalStore open(Path directory, Consumer<JournalSlot> snapshotSlots,
+                                     Consumer<JournalRecord> records) throws IOException {
+        return JournalStore.open(directory, SEGMENT_SIZE, snapshotSlots, records);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.olvera.hospital.benchmark;
+
+import com.olvera.hospital.search.PatientNameIndex;
+import com.olvera.hospital.search.PatientSearchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead lookups in a {@link PatientNameIndex} of distinct three-word names, two appointments each, up to
+ * 100 000 names. The heap the index takes is printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PatientNameIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"María", "José", "Juan", "Ana", "Luis", "Carmen", "Jorge", "Laura",
+            "Pedro", "Sofía", "Miguel", "Lucía", "Carlos", "Elena", "Javier", "Paula", "Diego", "Marta", "Andrés",
+            "Isabel", "Pablo", "Rosa", "Fernando", "Julia", "Raúl", "Teresa", "Sergio", "Clara", "Alberto", "Inés",
+            "Ricardo", "Patricia", "Víctor", "Silvia", "Emilio", "Beatriz", "Hugo", "Natalia", "Óscar", "Irene"};
+
+    private static final String[] LAST_NAMES = {"García", "Rodríguez", "González", "Fernández", "López",
+            "Martínez", "Sánchez", "Pérez", "Gómez", "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno",
+            "Muñoz", "Álvarez", "Romero", "Alonso", "Gutiérrez", "Navarro", "Torres", "Domínguez", "Vázquez",
+            "Ramos", "Gil", "Ramírez", "Serrano", "Blanco", "Molina", "Morales", "Suárez", "Ortega", "Delgado",
+            "Castro", "Ortiz", "Rubio", "Marín", "Sanz", "Núñez", "Iglesias", "Medina", "Garrido", "Cortés",
+            "Castillo", "Santos", "Lozano", "Guerrero", "Cano", "Prieto"};
+
+    @Param({"100000"})
+    private int patients;
+
+    private PatientNameIndex index;
+
+    @Setup
+    public void setUp() {
+        System.gc();
+        long heapBefore = usedHeap();
+
+        index = new PatientNameIndex(new PatientSearchProperties(patients, 1000), new SimpleMeterRegistry());
+        for (int n = 0; n < patients; n++) {
+            String name = patientName(n);
+            index.add(2L * n, name);
+            index.add(2L * n + 1, name);
+        }
+
+        System.gc();
+        long heap = usedHeap() - heapBefore;
+        System.out.printf("%n%d patients: %.1f MB of heap, %d bytes per patient%n", index.size(),
+                heap / 1_048_576.0, heap / index.size());
+    }
+
+    /**
+     * The first letters typed: the most names match, and the first ten are returned.
+     */
+    @Benchmark
+    public List<?> shortPrefix() {
+        return index.search("gar", 10);
+    }
+
+    @Benchmark
+    public List<?> twoWords() {
+        return index.search("maria garc", 10);
+    }
+
+    /**
+     * Words out of order: every name with a word starting with the longest one is checked against the others.
+     */
+    @Benchmark
+    public List<?> twoWordsOutOfOrder() {
+        return index.search("garc maria", 10);
+    }
+
+    @Benchmark
+    public List<?> noMatch() {
+        return index.search("quintanilla", 10);
+    }
+
+    private static String patientName(int n) {
+        int lastNames = LAST_NAMES.length;
+        return FIRST_NAMES[n % FIRST_NAMES.length] + " " + LAST_NAMES[n / FIRST_NAMES.length % lastNames] + " "
+                + LAST_NAMES[n / FIRST_NAMES.length / lastNames % lastNames];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,80 @@
+package com.olvera.hospital.benchmark;
+
+import com.olvera.hospital.scheduling.RoomAssigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Planning the rooms of a full day with {@link RoomAssigner}: a quarter of the slots of every room already booked,
+ * and as many appointments to plan as there are slots left, so the last ones of every slot find every room taken.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoomAssignerBenchmark {
+
+    private static final int SLOTS_PER_DAY = 20;
+
+    private static final LocalDateTime OPENING = BenchmarkDataset.FIRST_SLOT.withHour(8);
+
+    @Param({"200"})
+    private int rooms;
+
+    private List<Long> consultingRoomIds;
+
+    private final List<LocalDateTime> booked = new ArrayList<>();
+
+    private final List<LocalDateTime> requested = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        consultingRoomIds = LongStream.rangeClosed(1, rooms).boxed().toList();
+        for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+            LocalDateTime time = OPENING.plusMinutes(30L * slot);
+            for (int room = 0; room < rooms; room++) {
+                (room % 4 == slot % 4 ? booked : requested).add(time);
+            }
+        }
+    }
+
+    /**
+     * @return the number of appointments that got a room
+     */
+    @Benchmark
+    public int planDay() {
+        RoomAssigner roomAssigner = new RoomAssigner(consultingRoomIds, 30);
+        for (int n = 0; n < booked.size(); n++) {
+            roomAssigner.occupy(doctorId(n), consultingRoomIds.get(n % rooms), booked.get(n));
+        }
+
+        int planned = 0;
+        for (int n = 0; n < requested.size(); n++) {
+            if (roomAssigner.assign(doctorId(n), requested.get(n)) != null) {
+                planned++;
+            }
+        }
+        return planned;
+    }
+
+    private long doctorId(int appointment) {
+        return appointment % rooms + 1;
+    }
+}
@@ -5,10 +5,18 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
+@ConfigurationPropertiesScan
 @OpenAPIDefinition(
         info = @Info(
                 title = "Hospital microservice REST API Documentation",
@@ -35,4 +43,15 @@ public class HospitalApplication {
         SpringApplication.run(HospitalApplication.class, args);
     }
 
+    /**
+     * Keeps the beans of the application eager when {@code spring.main.lazy-initialization} is on, so that the
+     * database, the caches and the occupancy index are ready before the first request; only library beans become
+     * lazy.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerApplicationBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && beanType.getPackageName().startsWith(HospitalApplication.class.getPackageName());
+    }
+
 }
@@ -0,0 +1,121 @@
+package com.olvera.hospital.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The budget of one kind of request: a token bucket per client and a concurrency limit for all of them.
+ * <p>
+ * The bucket is kept as the generic cell rate algorithm does, as a single number per client: the theoretical
+ * arrival time of its next request, which moves one emission interval on with every request admitted. A request
+ * is admitted unless that time is more than the burst ahead of now, so taking a token is one compare-and-set.
+ */
+final class AdmissionBudget {
+
+    static final String IN_FLIGHT_GAUGE = "hospital.admission.in.flight";
+
+    static final String REJECTIONS_COUNTER = "hospital.admission.rejected";
+
+    private final int index;
+
+    private final long emissionInterval;
+
+    private final long burstTolerance;
+
+    private final int maxConcurrent;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter rateRejections;
+
+    private final Counter concurrencyRejections;
+
+    /**
+     * @param kind          {@code read} or {@code write}, the tag of the metrics
+     * @param index         where the clients keep their theoretical arrival time of this kind
+     * @param rate          requests per second a client is allowed on average
+     * @param burst         requests a client that has been idle may send at once
+     * @param maxConcurrent requests served at the same time, by all clients
+     */
+    AdmissionBudget(String kind, int index, double rate, int burst, int maxConcurrent, MeterRegistry meterRegistry) {
+        if (rate <= 0 || burst < 1 || maxConcurrent < 1) {
+            throw new IllegalArgumentException("The " + kind + " rate, burst and concurrency must be positive.");
+        }
+        this.index = index;
+        this.emissionInterval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burstTolerance = emissionInterval * burst;
+        this.maxConcurrent = maxConcurrent;
+
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                .description("Appointment requests being served")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        this.rateRejections = rejections(kind, "rate", meterRegistry);
+        this.concurrencyRejections = rejections(kind, "concurrency", meterRegistry);
+    }
+
+    private static Counter rejections(String kind, String reason, MeterRegistry meterRegistry) {
+        return Counter.builder(REJECTIONS_COUNTER)
+                .description("Appointment requests shed by admission control")
+                .tag("kind", kind)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take a token from the bucket of a client.
+     *
+     * @param arrivals the theoretical arrival times of the client
+     * @param now      the current {@link System#nanoTime()}
+     * @return 0 if the token was taken, otherwise how many nanoseconds until one is available
+     */
+    long tryTake(AtomicLongArray arrivals, long now) {
+        while (true) {
+            long arrival = arrivals.get(index);
+            // Compared by difference, as nano times may overflow
+            long next = (arrival - now < 0 ? now : arrival) + emissionInterval;
+            long wait = next - now - burstTolerance;
+            if (wait > 0) {
+                rateRejections.increment();
+                return wait;
+            }
+            if (arrivals.compareAndSet(index, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Take one of the concurrent requests, to be given back with {@link #exit()} once the request is served.
+     *
+     * @return whether one was free
+     */
+    boolean tryEnter() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent) {
+                concurrencyRejections.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * How long an idle client takes to refill its bucket, after which its state is the same as a new client's.
+     */
+    long refillNanos() {
+        return burstTolerance;
+    }
+}
@@ -0,0 +1,183 @@
+package com.olvera.hospital.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olvera.hospital.dto.ErrorResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Sheds appointment requests over their budget with a {@code 429 Too Many Requests} and a {@code Retry-After},
+ * before they reach the controller and take a database connection. Each client, told apart by its address, has a
+ * rate of reads and a rate of writes; reads and writes also each have a concurrency limit, so a flood of one kind
+ * cannot take every connection from the other.
+ * <p>
+ * An async request, such as an export, keeps its place until its response is complete, since it holds its
+ * connection until then. A Server-Sent Event stream gives its place back as soon as its handler returns: an open
+ * subscription holds no connection.
+ * <p>
+ * Clients are told apart by their address as the proxy in front reports it, see
+ * {@code server.forward-headers-strategy}.
+ * <p>
+ * Admitting a request takes two compare-and-sets and no lock: see {@link AdmissionBudget}.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String PATH_PREFIX = "/api/appointment/";
+
+    private static final int MAXIMUM_CLIENTS = 100_000;
+
+    private static final int READ = 0;
+
+    private static final int WRITE = 1;
+
+    private final boolean enabled;
+
+    private final AdmissionBudget reads;
+
+    private final AdmissionBudget writes;
+
+    private final ObjectMapper objectMapper;
+
+    private final LongSupplier nanoClock;
+
+    // Theoretical arrival times of each client, by kind; forgotten once they would be a new client's anyway
+    private final Cache<String, AtomicLongArray> clients;
+
+    @Autowired
+    public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           LongSupplier nanoClock) {
+        this.enabled = properties.enabled();
+        this.reads = new AdmissionBudget("read", READ, properties.readRate(), properties.readBurst(),
+                properties.readConcurrency(), meterRegistry);
+        this.writes = new AdmissionBudget("write", WRITE, properties.writeRate(), properties.writeBurst(),
+                properties.writeConcurrency(), meterRegistry);
+        this.objectMapper = objectMapper;
+        this.nanoClock = nanoClock;
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_CLIENTS)
+                .expireAfterAccess(Duration.ofNanos(Math.max(reads.refillNanos(), writes.refillNanos())))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        AdmissionBudget budget = read ? reads : writes;
+
+        long now = nanoClock.getAsLong();
+        AtomicLongArray arrivals = clients.get(request.getRemoteAddr(),
+                client -> new AtomicLongArray(new long[]{now, now}));
+        long wait = budget.tryTake(arrivals, now);
+        if (wait > 0) {
+            reject(request, response, TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1,
+                    "Too many requests from this client, retry later.");
+            return;
+        }
+        if (!budget.tryEnter()) {
+            reject(request, response, 1, "Too many requests being served, retry later.");
+            return;
+        }
+
+        boolean holding = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted() && !isEventStream(response)) {
+                request.getAsyncContext().addListener(new ExitOnCompletion(budget));
+                holding = true;
+            }
+        } finally {
+            if (!holding) {
+                budget.exit();
+            }
+        }
+    }
+
+    private static boolean isEventStream(HttpServletResponse response) {
+        return response.getContentType() != null
+                && MediaType.TEXT_EVENT_STREAM.isCompatibleWith(MediaType.parseMediaType(response.getContentType()));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds,
+                        String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDto("uri=" + request.getRequestURI(),
+                HttpStatus.TOO_MANY_REQUESTS, message, LocalDateTime.now()));
+    }
+
+    /**
+     * Gives an async request's place back once, when its response is complete, failed or timed out.
+     */
+    private static final class ExitOnCompletion implements AsyncListener {
+
+        private final AdmissionBudget budget;
+
+        private final AtomicBoolean exited = new AtomicBoolean();
+
+        private ExitOnCompletion(AdmissionBudget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async restarted: listeners are dropped, so register again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void exit() {
+            if (exited.compareAndSet(false, true)) {
+                budget.exit();
+            }
+        }
+    }
+}
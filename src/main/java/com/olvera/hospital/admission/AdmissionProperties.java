@@ -0,0 +1,27 @@
+package com.olvera.hospital.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Admission control of the appointment endpoints. Reads are {@code GET} and {@code HEAD} requests, writes all
+ * the others; each has a rate per client and a concurrency limit shared by all clients.
+ *
+ * @param enabled          whether requests over their budget are shed
+ * @param readRate         reads per second a client is allowed on average
+ * @param readBurst        reads a client that has been idle may send at once
+ * @param readConcurrency  reads served at the same time, by all clients
+ * @param writeRate        writes per second a client is allowed on average
+ * @param writeBurst       writes a client that has been idle may send at once
+ * @param writeConcurrency writes served at the same time, by all clients
+ */
+@ConfigurationProperties(prefix = "hospital.admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") double readRate,
+        @DefaultValue("40") int readBurst,
+        @DefaultValue("6") int readConcurrency,
+        @DefaultValue("10") double writeRate,
+        @DefaultValue("20") int writeBurst,
+        @DefaultValue("8") int writeConcurrency) {
+}
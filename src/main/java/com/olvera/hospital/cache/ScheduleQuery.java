@@ -0,0 +1,16 @@
+package com.olvera.hospital.cache;
+
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+
+/**
+ * One page of the appointments of a day, optionally narrowed to a doctor and a consulting room.
+ *
+ * @param doctorId         the ID of the doctor, or {@code null} for every doctor
+ * @param consultingRoomId the ID of the consulting room, or {@code null} for every room
+ * @param day              the day of the appointments
+ * @param pageable         the page, its size and its sort order
+ */
+public record ScheduleQuery(Long doctorId, Long consultingRoomId, LocalDate day, Pageable pageable) {
+}
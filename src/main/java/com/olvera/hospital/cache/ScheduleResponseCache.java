@@ -0,0 +1,110 @@
+package com.olvera.hospital.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olvera.hospital.dto.AppointmentDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Serialized pages of day schedules, each tagged with the {@link ScheduleVersions} version it was read at.
+ * A page is served from memory until the schedules it depends on change; polling an unchanged schedule costs
+ * neither a query nor a serialization, and a client that sends back the ETag gets no body at all.
+ */
+@Component
+@AllArgsConstructor
+public class ScheduleResponseCache {
+
+    private static final String CACHE_NAME = "scheduleResponses";
+
+    private static final int MAXIMUM_SIZE = 10_000;
+
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+
+    private ScheduleVersions scheduleVersions;
+
+    private ObjectMapper objectMapper;
+
+    private MeterRegistry meterRegistry;
+
+    private final Cache<ScheduleQuery, SchedulePage> responses = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .recordStats()
+            .build();
+
+    @PostConstruct
+    void registerMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+    }
+
+    /**
+     * A page of appointments serialized as a JSON array.
+     *
+     * @param etag    the entity tag of the page, or {@code null} when it is not cached
+     * @param body    the JSON array, or {@code null} when the page is empty
+     * @param hasNext whether another page follows
+     * @param version the version of the schedules the page was read at, or {@code null} when it is not cached
+     */
+    public record SchedulePage(String etag, byte[] body, boolean hasNext, String version) {
+    }
+
+    /**
+     * The entity tag a page of the query has now, computed from the schedule versions alone.
+     */
+    public String etag(ScheduleQuery query) {
+        return etag(scheduleVersions.version(query));
+    }
+
+    /**
+     * The cached page of the query if its schedules have not changed since it was read, otherwise a page
+     * freshly loaded and serialized. The version is read before loading: a change committed while the page
+     * loads moves the version on, so the page is never served as newer than it is.
+     */
+    public SchedulePage get(ScheduleQuery query, Supplier<Slice<AppointmentDto>> loader) {
+        String version = scheduleVersions.version(query);
+        SchedulePage cached = responses.getIfPresent(query);
+        if (cached != null && cached.version().equals(version)) {
+            return cached;
+        }
+
+        SchedulePage schedule = load(loader, etag(version), version);
+        responses.put(query, schedule);
+        return schedule;
+    }
+
+    /**
+     * A page freshly loaded and serialized, for a query no version covers. It has no entity tag and is not cached.
+     */
+    public SchedulePage load(Supplier<Slice<AppointmentDto>> loader) {
+        return load(loader, null, null);
+    }
+
+    private SchedulePage load(Supplier<Slice<AppointmentDto>> loader, String etag, String version) {
+        Slice<AppointmentDto> appointments = loader.get();
+        return new SchedulePage(etag, appointments.hasContent() ? serialize(appointments) : null,
+                appointments.hasNext(), version);
+    }
+
+    private String etag(String version) {
+        return "\"" + scheduleVersions.epoch() + "-" + version + "\"";
+    }
+
+    private byte[] serialize(Slice<AppointmentDto> appointments) {
+        try {
+            return objectMapper.writeValueAsBytes(appointments.getContent());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.olvera.hospital.cache;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.event.AppointmentsImportedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the doctor, consulting room and whole-clinic schedules of each day. Every committed
+ * change to an appointment bumps the schedules of the slot it left and of the slot it took, and nothing else,
+ * so a cached schedule stays valid for exactly as long as its version does not move.
+ * <p>
+ * Versions are drawn from a single sequence, so a schedule never returns to a version it had before. A schedule
+ * nothing has changed since startup is at version 0; the {@link #epoch()} tells those apart across restarts.
+ * <p>
+ * An import changes whole days at once: it raises the floor of those days, below which no schedule of the day
+ * can be, rather than bumping every doctor and room schedule one by one.
+ * <p>
+ * Past days keep changing, as their appointments are archived or imported, but are rarely read. The archive job
+ * has them {@link #forgetBefore forgotten}, behind a floor of their own, so that only the days still in use take
+ * memory.
+ */
+@Component
+public class ScheduleVersions {
+
+    private static final long UNCHANGED = 0;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<Schedule, Long> versions = new ConcurrentHashMap<>();
+
+    private final Map<LocalDate, Long> dayFloors = new ConcurrentHashMap<>();
+
+    private volatile Forgotten forgotten = new Forgotten(LocalDate.MIN, UNCHANGED);
+
+    /**
+     * The schedule of one day: a doctor's, a consulting room's, or the whole clinic's when both IDs are null.
+     */
+    private record Schedule(Long doctorId, Long consultingRoomId, LocalDate day) {
+    }
+
+    /**
+     * The days whose versions were forgotten, all of them before a day, and the floor of their schedules.
+     */
+    private record Forgotten(LocalDate before, long floor) {
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    /**
+     * The version of the schedules a query reads. A query narrowed to a doctor and a room depends on both
+     * schedules; one narrowed to neither depends on the whole clinic's.
+     */
+    public String version(ScheduleQuery query) {
+        if (query.doctorId() == null && query.consultingRoomId() == null) {
+            return Long.toString(version(new Schedule(null, null, query.day())));
+        }
+        long doctorVersion = query.doctorId() == null ? UNCHANGED : version(new Schedule(query.doctorId(), null, query.day()));
+        long roomVersion = query.consultingRoomId() == null ? UNCHANGED
+                : version(new Schedule(null, query.consultingRoomId(), query.day()));
+        return doctorVersion + "." + roomVersion;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        event.states().forEach(this::bump);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentsImported(AppointmentsImportedEvent event) {
+        event.days().forEach(day -> dayFloors.put(day, sequence.incrementAndGet()));
+    }
+
+    /**
+     * Forget the versions of the schedules of the days before a day. The schedules of all the forgotten days then
+     * share a new version, which they keep until one of those days is forgotten again after changing.
+     */
+    public synchronized void forgetBefore(LocalDate day) {
+        LocalDate before = day.isAfter(forgotten.before()) ? day : forgotten.before();
+        boolean remembered = versions.keySet().stream().anyMatch(schedule -> schedule.day().isBefore(before))
+                || dayFloors.keySet().stream().anyMatch(floorDay -> floorDay.isBefore(before));
+        if (before.equals(forgotten.before()) && !remembered) {
+            return;
+        }
+        long floor = sequence.incrementAndGet();
+        forgotten = new Forgotten(before, floor);
+
+        // A version drawn after the floor is newer than it, and stays
+        versions.entrySet().removeIf(entry -> entry.getKey().day().isBefore(before) && entry.getValue() < floor);
+        dayFloors.entrySet().removeIf(entry -> entry.getKey().isBefore(before) && entry.getValue() < floor);
+    }
+
+    int size() {
+        return versions.size() + dayFloors.size();
+    }
+
+    private void bump(AppointmentDto appointment) {
+        LocalDate day = appointment.getConsultationTime().toLocalDate();
+        bump(new Schedule(appointment.getDoctorId(), null, day));
+        bump(new Schedule(null, appointment.getConsultingRoomId(), day));
+        bump(new Schedule(null, null, day));
+    }
+
+    private void bump(Schedule schedule) {
+        versions.put(schedule, sequence.incrementAndGet());
+    }
+
+    private long version(Schedule schedule) {
+        long version = Math.max(versions.getOrDefault(schedule, UNCHANGED),
+                dayFloors.getOrDefault(schedule.day(), UNCHANGED));
+        // Read after the maps: an entry is only forgotten once its days are
+        Forgotten forgotten = this.forgotten;
+        return schedule.day().isBefore(forgotten.before()) ? Math.max(version, forgotten.floor()) : version;
+    }
+}
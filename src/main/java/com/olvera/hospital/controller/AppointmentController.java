@@ -1,27 +1,66 @@
 package com.olvera.hospital.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.olvera.hospital.cache.ScheduleQuery;
+import com.olvera.hospital.cache.ScheduleResponseCache;
 import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.AppointmentHistoryDto;
+import com.olvera.hospital.dto.AppointmentImportResultDto;
+import com.olvera.hospital.dto.AppointmentPlanRequestDto;
+import com.olvera.hospital.dto.AppointmentPlanResultDto;
+import com.olvera.hospital.dto.AvailableSlotDto;
+import com.olvera.hospital.dto.BulkAppointmentResultDto;
 import com.olvera.hospital.dto.ErrorResponseDto;
+import com.olvera.hospital.dto.PatientMatchDto;
+import com.olvera.hospital.encoding.AppointmentBinaryEncoder;
+import com.olvera.hospital.encoding.AppointmentBinaryFormat;
 import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.idempotency.IdempotentRequests;
+import com.olvera.hospital.service.IAppointmentArchiveService;
+import com.olvera.hospital.service.IAppointmentImportService;
+import com.olvera.hospital.service.IAppointmentPlanningService;
 import com.olvera.hospital.service.IAppointmentService;
+import com.olvera.hospital.service.IAvailabilityService;
+import com.olvera.hospital.service.IPatientSearchService;
+import com.olvera.hospital.subscription.ScheduleChangeBroadcaster;
+import com.olvera.hospital.subscription.ScheduleFilter;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Tag(
         name = "CRUD REST APIs for Appointments",
@@ -33,17 +72,52 @@ import java.util.List;
 @Validated
 public class AppointmentController {
 
+    private static final String HAS_NEXT_PAGE_HEADER = "X-Has-Next-Page";
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Long enough to stream the whole appointment table; every other async request keeps the container's timeout
+    private static final long EXPORT_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
     private IAppointmentService appointmentService;
 
+    private IAvailabilityService availabilityService;
+
+    private IAppointmentArchiveService appointmentArchiveService;
+
+    private IAppointmentImportService appointmentImportService;
+
+    private IAppointmentPlanningService appointmentPlanningService;
+
+    private IPatientSearchService patientSearchService;
+
+    private ObjectMapper objectMapper;
+
+    private ScheduleResponseCache scheduleResponseCache;
+
+    private ScheduleChangeBroadcaster scheduleChangeBroadcaster;
+
+    private IdempotentRequests idempotentRequests;
+
     @Operation(
             summary = "Create Appointment REST API",
-            description = "REST API to create new Appointment"
+            description = "REST API to create new Appointment. A request sent again with the same " +
+                    "Idempotency-Key header gets the appointment the first one created, without booking it twice"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "201",
                     description = "HTTP Status CREATED"
             ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "HTTP Status Unprocessable Entity: the Idempotency-Key was used with another request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -54,14 +128,52 @@ public class AppointmentController {
     }
     )
     @PostMapping("/create")
-    public ResponseEntity<Appointment> createAppointment(@Valid @RequestBody AppointmentDto appointmentDto) {
-        Appointment appointment = appointmentService.createAppointment(appointmentDto);
-        return new ResponseEntity<>(appointment, HttpStatus.CREATED);
+    public ResponseEntity<Appointment> createAppointment(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @Valid @RequestBody AppointmentDto appointmentDto) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            Appointment appointment = appointmentService.createAppointment(appointmentDto);
+            return new ResponseEntity<>(appointment, HttpStatus.CREATED);
+        }
+
+        IdempotentRequests.Outcome<Appointment> outcome = idempotentRequests.execute(idempotencyKey, appointmentDto,
+                () -> appointmentService.createAppointment(appointmentDto));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(outcome.replayed()))
+                .body(outcome.value());
     }
 
     @Operation(
-            summary = "Get Appointment REST API",
-            description = "REST API to get appointmens"
+            summary = "Bulk Create Appointment REST API",
+            description = "REST API to create up to 500 appointments at once. " +
+                    "Every appointment is validated and reported on its own: rejected ones do not stop the others"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping("/bulk-create")
+    public ResponseEntity<List<BulkAppointmentResultDto>> createAppointments(@RequestBody List<AppointmentDto> appointmentDtos) {
+        return ResponseEntity.ok(appointmentService.createAppointments(appointmentDtos));
+    }
+
+    @Operation(
+            summary = "Plan Consulting Rooms REST API",
+            description = "REST API to assign consulting rooms to up to 10000 appointments over up to 31 days, " +
+                    "around the appointments already booked, without booking them. Doctors keep the same room " +
+                    "through the day where they can. Appointments that break a booking rule, or for which no room " +
+                    "is free, come back with the reason; the planned ones can be sent as they are to the bulk " +
+                    "create API"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -77,26 +189,305 @@ public class AppointmentController {
             )
     }
     )
+    @PostMapping("/plan-rooms")
+    public ResponseEntity<List<AppointmentPlanResultDto>> planConsultingRooms(
+            @RequestBody List<AppointmentPlanRequestDto> requests) {
+        return ResponseEntity.ok(appointmentPlanningService.planConsultingRooms(requests));
+    }
+
+    @Operation(
+            summary = "Import Appointments REST API",
+            description = "REST API to import a CSV file of appointments, streamed row by row. " +
+                    "Columns: doctor (full name), consulting_room (room number), consultation_time, " +
+                    "patient_name and an optional status. Historical imports insert past appointments " +
+                    "without the booking validations; otherwise every row is booked as a pending appointment"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<AppointmentImportResultDto> importAppointments(
+            @RequestParam(value = "historical", defaultValue = "false") boolean historical,
+            InputStream csv) {
+        return ResponseEntity.ok(appointmentImportService.importAppointments(csv, historical));
+    }
+
+    @Operation(
+            summary = "Get Appointment REST API",
+            description = "REST API to get appointmens, one page at a time, sorted by id, consultationTime or " +
+                    "patientName. The X-Has-Next-Page header tells whether another page is available. " +
+                    "Pages of a single day carry an ETag: send it back in If-None-Match to get " +
+                    "304 Not Modified while the schedule is unchanged"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            array = @ArraySchema(schema = @Schema(implementation = AppointmentDto.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "HTTP Status No Content"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "HTTP Status Not Modified"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
     @GetMapping("/filter")
-    public ResponseEntity<List<AppointmentDto>> queryAppointments(
+    public ResponseEntity<byte[]> queryAppointments(
             @RequestParam(value = "doctorId", required = false) Long doctorId,
             @RequestParam(value = "consultingRoomId", required = false) Long consultingRoomId,
-            @RequestParam(value = "consultationDate", required = false) String consultationDate) {
+            @RequestParam(value = "consultationDate", required = false) String consultationDate,
+            @ParameterObject @PageableDefault(size = 50, sort = "consultationTime") Pageable pageable,
+            WebRequest webRequest) {
+
+        LocalDateTime startDateTime = startOfDay(consultationDate, 0);
+        LocalDateTime endDateTime = startOfDay(consultationDate, 1);
+
+        Supplier<Slice<AppointmentDto>> loader = () -> appointmentService.filterAppointments(doctorId, consultingRoomId,
+                startDateTime, endDateTime, pageable);
 
-        LocalDateTime startDateTime = null;
-        LocalDateTime endDateTime = null;
+        // Only the schedule of a day is versioned: wider queries are read and serialized every time
+        if (startDateTime == null) {
+            ScheduleResponseCache.SchedulePage schedulePage = scheduleResponseCache.load(loader);
+            return page(schedulePage.body(), schedulePage.hasNext(), null);
+        }
 
-        if (consultationDate != null) {
-            LocalDate date = LocalDate.parse(consultationDate, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            startDateTime = date.atStartOfDay();
-            endDateTime = date.plusDays(1).atStartOfDay();
+        ScheduleQuery query = new ScheduleQuery(doctorId, consultingRoomId, startDateTime.toLocalDate(), pageable);
+        if (webRequest.checkNotModified(scheduleResponseCache.etag(query))) {
+            return null;
         }
 
-        List<AppointmentDto> appointments = appointmentService.filterAppointments(doctorId, consultingRoomId, startDateTime, endDateTime);
+        ScheduleResponseCache.SchedulePage schedulePage = scheduleResponseCache.get(query, loader);
+        return page(schedulePage.body(), schedulePage.hasNext(), schedulePage.etag());
+    }
 
-        return appointments.isEmpty()
+    @Operation(
+            summary = "Subscribe to Schedule Changes REST API",
+            description = "REST API to receive the changes of a doctor, consulting room or day schedule as " +
+                    "Server-Sent Events once they are committed, instead of polling the filter API. " +
+                    "Each event is named created, edited, cancelled or archived and carries the appointment " +
+                    "before and after the change. A client that does not keep up is disconnected, " +
+                    "and should reload the schedule when it reconnects"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "consultingRoomId", required = false) Long consultingRoomId,
+            @RequestParam(value = "consultationDate", required = false) String consultationDate) {
+
+        return scheduleChangeBroadcaster.subscribe(new ScheduleFilter(doctorId, consultingRoomId,
+                consultationDate == null ? null : parseDate(consultationDate)));
+    }
+
+    @Operation(
+            summary = "Export Appointments REST API",
+            description = "REST API to stream every appointment matching the filters as newline-delimited JSON, " +
+                    "ordered by consultation time. Bulk consumers can send Accept: " +
+                    AppointmentBinaryFormat.MEDIA_TYPE_VALUE + " to get them in a compact binary encoding " +
+                    "instead, described by AppointmentBinaryFormat"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    // The wildcard keeps JSON the default: a client that accepts anything never gets the binary encoding
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.ALL_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "consultingRoomId", required = false) Long consultingRoomId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            WebRequest webRequest) {
+
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest().setTimeout(EXPORT_TIMEOUT_MILLIS);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport(export(doctorId, consultingRoomId, from, to)));
+    }
+
+    @GetMapping(value = "/export", produces = AppointmentBinaryFormat.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsInBinary(
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "consultingRoomId", required = false) Long consultingRoomId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            WebRequest webRequest) {
+
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest().setTimeout(EXPORT_TIMEOUT_MILLIS);
+        return ResponseEntity.ok()
+                .contentType(AppointmentBinaryFormat.MEDIA_TYPE)
+                .body(binaryExport(export(doctorId, consultingRoomId, from, to)));
+    }
+
+    @Operation(
+            summary = "Appointment History REST API",
+            description = "REST API to get the archived appointments of a doctor or of a patient, one page at a time. " +
+                    "Completed and cancelled appointments are archived a few days after they took place"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "HTTP Status No Content"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/history")
+    public ResponseEntity<List<AppointmentHistoryDto>> queryHistory(
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "patientName", required = false) String patientName,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @ParameterObject @PageableDefault(size = 50, sort = "consultationTime") Pageable pageable) {
+
+        Slice<AppointmentHistoryDto> history = appointmentArchiveService.findHistory(doctorId, patientName,
+                from == null ? null : parseDate(from), to == null ? null : parseDate(to), pageable);
+
+        return history.isEmpty()
                 ? ResponseEntity.noContent().build()
-                : ResponseEntity.ok(appointments);
+                : ResponseEntity.ok()
+                .header(HAS_NEXT_PAGE_HEADER, String.valueOf(history.hasNext()))
+                .body(history.getContent());
+    }
+
+    @Operation(
+            summary = "Find Available Slots REST API",
+            description = "REST API to find the earliest free slots with a doctor of the given specialty, " +
+                    "searching a week from today unless a range of up to 31 days is given. Slots at the same time " +
+                    "are in different consulting rooms, so they can be booked together"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "HTTP Status No Content"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/availability")
+    public ResponseEntity<List<AvailableSlotDto>> findAvailableSlots(
+            @RequestParam(value = "specialty") String specialty,
+            @RequestParam(value = "consultingRoomId", required = false) Long consultingRoomId,
+            @RequestParam(value = "patientName", required = false) String patientName,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+        LocalDate fromDate = from == null ? LocalDate.now() : parseDate(from);
+        LocalDate toDate = to == null ? fromDate.plusDays(6) : parseDate(to);
+
+        List<AvailableSlotDto> slots = availabilityService.findAvailableSlots(specialty, consultingRoomId, patientName,
+                fromDate, toDate, limit);
+
+        return slots.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(slots);
+    }
+
+    @Operation(
+            summary = "Search Patients REST API",
+            description = "REST API to find, as a name is typed, the patients with appointments that are not cancelled " +
+                    "whose name has words starting with the words searched, ignoring case and accents, " +
+                    "with the IDs of their appointments"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "HTTP Status No Content"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/patients")
+    public ResponseEntity<List<PatientMatchDto>> searchPatients(
+            @RequestParam(value = "name") String name,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+        List<PatientMatchDto> patients = patientSearchService.searchPatients(name, limit);
+
+        return patients.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(patients);
     }
 
     @Operation(
@@ -162,4 +553,69 @@ public class AppointmentController {
     public ResponseEntity<AppointmentDto> edit(@PathVariable Long id, @Valid @RequestBody AppointmentDto dto) {
         return ResponseEntity.ok(appointmentService.editAppointment(id, dto));
     }
+
+    private static ResponseEntity<byte[]> page(byte[] body, boolean hasNext, String etag) {
+        if (body == null) {
+            return ResponseEntity.noContent().eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HAS_NEXT_PAGE_HEADER, String.valueOf(hasNext))
+                .body(body);
+    }
+
+    private Consumer<Consumer<List<AppointmentDto>>> export(Long doctorId, Long consultingRoomId, String from,
+                                                            String to) {
+        LocalDateTime startDateTime = startOfDay(from, 0);
+        LocalDateTime endDateTime = startOfDay(to, 1);
+        return batchConsumer -> appointmentService.exportAppointments(doctorId, consultingRoomId, startDateTime,
+                endDateTime, batchConsumer);
+    }
+
+    private StreamingResponseBody ndjsonExport(Consumer<Consumer<List<AppointmentDto>>> export) {
+        return outputStream -> {
+            // ObjectMapper.writeValue and JsonGenerator.writeObject would flush after every appointment
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                export.accept(batch -> {
+                    try {
+                        for (AppointmentDto appointment : batch) {
+                            writer.writeValue(generator, appointment);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    private static StreamingResponseBody binaryExport(Consumer<Consumer<List<AppointmentDto>>> export) {
+        return outputStream -> {
+            AppointmentBinaryEncoder encoder = new AppointmentBinaryEncoder(outputStream);
+            export.accept(batch -> {
+                try {
+                    for (AppointmentDto appointment : batch) {
+                        encoder.write(appointment);
+                    }
+                    encoder.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            encoder.finish();
+        };
+    }
+
+    private static LocalDateTime startOfDay(String date, int plusDays) {
+        return date == null ? null : parseDate(date).plusDays(plusDays).atStartOfDay();
+    }
+
+    private static LocalDate parseDate(String date) {
+        return LocalDate.parse(date, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+    }
 }
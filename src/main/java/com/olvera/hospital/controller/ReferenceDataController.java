@@ -0,0 +1,103 @@
+package com.olvera.hospital.controller;
+
+import com.olvera.hospital.dto.CacheStatisticsDto;
+import com.olvera.hospital.dto.ErrorResponseDto;
+import com.olvera.hospital.service.IReferenceDataService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(
+        name = "REST APIs for the reference data cache",
+        description = "REST APIs to inspect and invalidate the cached doctors and consulting rooms"
+)
+@RestController
+@RequestMapping(path = "/api/reference-data/cache", produces = {MediaType.APPLICATION_JSON_VALUE})
+@AllArgsConstructor
+public class ReferenceDataController {
+
+    private IReferenceDataService referenceDataService;
+
+    @Operation(
+            summary = "Cache Statistics REST API",
+            description = "REST API to get the size and hit/miss statistics of the doctor and consulting room caches"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatisticsDto>> getCacheStatistics() {
+        return ResponseEntity.ok(referenceDataService.getCacheStatistics());
+    }
+
+    @Operation(
+            summary = "Evict Doctor REST API",
+            description = "REST API to evict a doctor from the cache after it was added or changed"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "HTTP Status No Content"
+            )
+    }
+    )
+    @DeleteMapping("/doctors/{doctorId}")
+    public ResponseEntity<Void> evictDoctor(@PathVariable Long doctorId) {
+        referenceDataService.evictDoctor(doctorId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+            summary = "Evict Consulting Room REST API",
+            description = "REST API to evict a consulting room from the cache after it was added or changed"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "HTTP Status No Content"
+            )
+    }
+    )
+    @DeleteMapping("/consulting-rooms/{consultingRoomId}")
+    public ResponseEntity<Void> evictConsultingRoom(@PathVariable Long consultingRoomId) {
+        referenceDataService.evictConsultingRoom(consultingRoomId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+            summary = "Clear Cache REST API",
+            description = "REST API to evict every cached doctor and consulting room"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "HTTP Status No Content"
+            )
+    }
+    )
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        referenceDataService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -16,6 +16,9 @@ import java.time.LocalDateTime;
 @Builder
 public class AppointmentDto {
 
+    @Schema(description = "Appointment ID", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
     @Schema(description = "Doctor ID", example = "1")
     @NotNull(message = "Doctor ID cannot be null or empty")
     private Long doctorId;
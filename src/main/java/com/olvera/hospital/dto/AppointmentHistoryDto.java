@@ -0,0 +1,39 @@
+package com.olvera.hospital.dto;
+
+import com.olvera.hospital.util.AppointmentStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(name = "AppointmentHistory", description = "Schema to hold an archived appointment")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AppointmentHistoryDto {
+
+    @Schema(description = "Appointment ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Doctor ID", example = "1")
+    private Long doctorId;
+
+    @Schema(description = "Consulting Room ID", example = "1")
+    private Long consultingRoomId;
+
+    @Schema(description = "Consultation Time", example = "2025-05-09T10:00:00")
+    private LocalDateTime consultationTime;
+
+    @Schema(description = "Patient Name", example = "John Doe")
+    private String patientName;
+
+    @Schema(description = "Status of the appointment when it was archived", example = "COMPLETED")
+    private AppointmentStatus status;
+
+    @Schema(description = "Time the appointment was moved to the archive", example = "2025-05-17T03:00:00")
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,27 @@
+package com.olvera.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Schema(name = "AppointmentImportResult", description = "Schema to hold the outcome of a CSV import")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AppointmentImportResultDto {
+
+    @Schema(description = "Number of rows imported", example = "250000")
+    private long imported;
+
+    @Schema(description = "Number of rows rejected", example = "2")
+    private long rejected;
+
+    @Schema(description = "Reasons of the first rejections, by line of the file",
+            example = "[\"line 17: No doctor named Jon Smith.\"]")
+    private List<String> errors;
+}
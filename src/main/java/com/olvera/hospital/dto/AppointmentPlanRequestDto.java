@@ -0,0 +1,26 @@
+package com.olvera.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(name = "AppointmentPlanRequest", description = "Schema to hold an appointment to plan a consulting room for")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AppointmentPlanRequestDto {
+
+    @Schema(description = "Doctor ID", example = "1")
+    private Long doctorId;
+
+    @Schema(description = "Consultation Time", example = "2025-05-09T10:00:00")
+    private LocalDateTime consultationTime;
+
+    @Schema(description = "Patient Name", example = "John Doe")
+    private String patientName;
+}
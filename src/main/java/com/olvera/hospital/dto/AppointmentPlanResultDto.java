@@ -0,0 +1,48 @@
+package com.olvera.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(name = "AppointmentPlanResult", description = "Schema to hold the consulting room planned for one " +
+        "appointment; planned appointments can be sent as they are to the bulk create API")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AppointmentPlanResultDto {
+
+    @Schema(description = "Position of the appointment in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Doctor ID", example = "1")
+    private Long doctorId;
+
+    @Schema(description = "Consulting Room ID, absent when the appointment cannot be planned", example = "1")
+    private Long consultingRoomId;
+
+    @Schema(description = "Consultation Time", example = "2025-05-09T10:00:00")
+    private LocalDateTime consultationTime;
+
+    @Schema(description = "Patient Name", example = "John Doe")
+    private String patientName;
+
+    @Schema(description = "Reason why the appointment cannot be planned")
+    private String message;
+
+    public static AppointmentPlanResultDto planned(int index, AppointmentPlanRequestDto request, Long consultingRoomId) {
+        return new AppointmentPlanResultDto(index, request.getDoctorId(), consultingRoomId,
+                request.getConsultationTime(), request.getPatientName(), null);
+    }
+
+    public static AppointmentPlanResultDto rejected(int index, AppointmentPlanRequestDto request, String message) {
+        return request == null
+                ? new AppointmentPlanResultDto(index, null, null, null, null, message)
+                : new AppointmentPlanResultDto(index, request.getDoctorId(), null, request.getConsultationTime(),
+                request.getPatientName(), message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.olvera.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(name = "AvailableSlot", description = "Schema to hold a free slot that can be booked as is")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AvailableSlotDto {
+
+    @Schema(description = "Doctor ID", example = "1")
+    private Long doctorId;
+
+    @Schema(description = "Consulting Room ID", example = "1")
+    private Long consultingRoomId;
+
+    @Schema(description = "Consultation Time", example = "2025-05-09T10:00:00")
+    private LocalDateTime consultationTime;
+}
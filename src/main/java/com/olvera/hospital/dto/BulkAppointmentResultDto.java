@@ -0,0 +1,36 @@
+package com.olvera.hospital.dto;
+
+import com.olvera.hospital.util.BulkAppointmentStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Schema(name = "BulkAppointmentResult", description = "Schema to hold the outcome of one appointment of a bulk request")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkAppointmentResultDto {
+
+    @Schema(description = "Position of the appointment in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Outcome of the appointment", example = "CREATED")
+    private BulkAppointmentStatus status;
+
+    @Schema(description = "ID of the created appointment", example = "1")
+    private Long appointmentId;
+
+    @Schema(description = "Reason why the appointment was rejected")
+    private String message;
+
+    public static BulkAppointmentResultDto created(int index, Long appointmentId) {
+        return new BulkAppointmentResultDto(index, BulkAppointmentStatus.CREATED, appointmentId, null);
+    }
+
+    public static BulkAppointmentResultDto rejected(int index, String message) {
+        return new BulkAppointmentResultDto(index, BulkAppointmentStatus.REJECTED, null, message);
+    }
+}
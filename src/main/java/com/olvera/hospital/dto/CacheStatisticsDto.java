@@ -0,0 +1,33 @@
+package com.olvera.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Schema(name = "CacheStatistics", description = "Schema to hold the statistics of a cache")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CacheStatisticsDto {
+
+    @Schema(description = "Cache name", example = "doctors")
+    private String name;
+
+    @Schema(description = "Approximate number of cached entries", example = "5")
+    private long size;
+
+    @Schema(description = "Number of lookups served from the cache", example = "120")
+    private long hitCount;
+
+    @Schema(description = "Number of lookups that went to the database", example = "5")
+    private long missCount;
+
+    @Schema(description = "Ratio of lookups served from the cache", example = "0.96")
+    private double hitRate;
+
+    @Schema(description = "Number of entries evicted because of size or age", example = "0")
+    private long evictionCount;
+}
@@ -0,0 +1,23 @@
+package com.olvera.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Schema(name = "PatientMatch", description = "Schema to hold a patient whose name matches a search, with their appointments")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PatientMatchDto {
+
+    @Schema(description = "Patient Name", example = "María García")
+    private String patientName;
+
+    @Schema(description = "IDs of the appointments of the patient that are not cancelled", example = "[12, 57]")
+    private List<Long> appointmentIds;
+}
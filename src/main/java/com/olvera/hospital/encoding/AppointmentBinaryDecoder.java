@@ -0,0 +1,123 @@
+package com.olvera.hospital.encoding;
+
+import com.olvera.hospital.dto.AppointmentDto;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.olvera.hospital.encoding.AppointmentBinaryFormat.*;
+
+/**
+ * Reads a stream written in the {@link AppointmentBinaryFormat}, one appointment at a time. It is the reference
+ * of the format for the clients that request it, more than a fast decoder.
+ */
+public final class AppointmentBinaryDecoder {
+
+    private final InputStream in;
+
+    private final List<String> names = new ArrayList<>();
+
+    private long previousMinute;
+
+    private boolean ended;
+
+    public AppointmentBinaryDecoder(InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in);
+        byte[] header = this.in.readNBytes(MAGIC.length + 1);
+        if (header.length < MAGIC.length + 1 || !Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("Not an appointment stream.");
+        }
+        if (header[MAGIC.length] != VERSION) {
+            throw new IOException("Unsupported appointment stream version " + header[MAGIC.length] + ".");
+        }
+    }
+
+    /**
+     * The next appointment, or {@code null} once the stream has ended.
+     *
+     * @throws EOFException if the stream is cut short
+     */
+    public AppointmentDto next() throws IOException {
+        if (ended) {
+            return null;
+        }
+
+        int tag = readByte();
+        if (tag == END) {
+            ended = true;
+            return null;
+        }
+        if (tag != APPOINTMENT && tag != APPOINTMENT_WITH_SECONDS) {
+            throw new IOException("Unknown record tag " + tag + ".");
+        }
+
+        long id = readVarint();
+        long doctorId = readVarint();
+        long consultingRoomId = readVarint();
+        long delta = readVarint();
+        long minute = previousMinute + ((delta >>> 1) ^ -(delta & 1));
+        long nanoOfMinute = tag == APPOINTMENT_WITH_SECONDS ? readVarint() : 0;
+        previousMinute = minute;
+
+        return AppointmentDto.builder()
+                .id(id)
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(LocalDateTime.ofEpochSecond(minute * 60 + nanoOfMinute / 1_000_000_000L,
+                        (int) (nanoOfMinute % 1_000_000_000L), ZoneOffset.UTC))
+                .patientName(readName())
+                .build();
+    }
+
+    private String readName() throws IOException {
+        long reference = readVarint();
+        if (reference > 0) {
+            if (reference > names.size()) {
+                throw new IOException("Unknown patient name " + reference + ".");
+            }
+            return names.get((int) reference - 1);
+        }
+
+        long length = readVarint();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Patient name of " + length + " bytes.");
+        }
+        byte[] bytes = in.readNBytes((int) length);
+        if (bytes.length < length) {
+            throw new EOFException("Appointment stream cut short.");
+        }
+        String name = new String(bytes, StandardCharsets.UTF_8);
+        if (names.size() < MAX_DICTIONARY_SIZE) {
+            names.add(name);
+        }
+        return name;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Appointment stream cut short.");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,246 @@
+package com.olvera.hospital.encoding;
+
+import com.olvera.hospital.dto.AppointmentDto;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static com.olvera.hospital.encoding.AppointmentBinaryFormat.*;
+
+/**
+ * Writes appointments to a stream in the {@link AppointmentBinaryFormat}. Records are encoded straight into a
+ * buffer of its own, names included, and names are indexed in a table of arrays: encoding allocates nothing
+ * but the occasional growth of that table.
+ * <p>
+ * Not thread-safe: an encoder writes one response.
+ */
+public final class AppointmentBinaryEncoder implements Flushable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    // Tag, three IDs, time and nanoseconds, name reference
+    private static final int MAX_FIXED_RECORD_BYTES = 1 + 6 * MAX_VARINT_BYTES;
+
+    private final OutputStream out;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    private final NameDictionary names = new NameDictionary();
+
+    private long previousMinute;
+
+    public AppointmentBinaryEncoder(OutputStream out) {
+        this.out = out;
+        System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+        buffer[MAGIC.length] = VERSION;
+        position = MAGIC.length + 1;
+    }
+
+    public void write(AppointmentDto appointment) throws IOException {
+        LocalDateTime time = appointment.getConsultationTime();
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        long minute = Math.floorDiv(seconds, 60);
+        long nanoOfMinute = Math.floorMod(seconds, 60) * 1_000_000_000L + time.getNano();
+
+        ensureCapacity(MAX_FIXED_RECORD_BYTES);
+        buffer[position++] = (byte) (nanoOfMinute == 0 ? APPOINTMENT : APPOINTMENT_WITH_SECONDS);
+        writeVarint(appointment.getId());
+        writeVarint(appointment.getDoctorId());
+        writeVarint(appointment.getConsultingRoomId());
+        writeVarint(zigzag(minute - previousMinute));
+        if (nanoOfMinute != 0) {
+            writeVarint(nanoOfMinute);
+        }
+        previousMinute = minute;
+
+        writeName(appointment.getPatientName());
+    }
+
+    /**
+     * Write what is buffered to the stream, so that the client gets the records written so far.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    /**
+     * End the stream and flush it. Nothing can be written after.
+     */
+    public void finish() throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = END;
+        flush();
+    }
+
+    private void writeName(String name) throws IOException {
+        int index = names.indexOf(name);
+        if (index >= 0) {
+            writeVarint(index + 1L);
+            return;
+        }
+
+        writeVarint(0);
+        if (names.size() < MAX_DICTIONARY_SIZE) {
+            names.add(name);
+        }
+
+        int length = utf8Length(name);
+        if (MAX_VARINT_BYTES + length > BUFFER_SIZE) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(MAX_VARINT_BYTES);
+            writeVarint(bytes.length);
+            out.write(buffer, 0, position);
+            position = 0;
+            out.write(bytes);
+            return;
+        }
+        ensureCapacity(MAX_VARINT_BYTES + length);
+        writeVarint(length);
+        writeUtf8(name);
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (BUFFER_SIZE - position < bytes) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // Both follow String.getBytes(UTF_8), which writes a lone surrogate as '?'
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void writeUtf8(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * The index of each name written so far, in an open-addressing table: unlike a {@code HashMap}, adding a name
+     * allocates nothing until the table grows.
+     */
+    private static final class NameDictionary {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        private String[] names = new String[INITIAL_CAPACITY];
+
+        private int[] indexes = new int[INITIAL_CAPACITY];
+
+        // Slots are the top bits of the hash times the golden ratio: names like "Patient 1234" have consecutive
+        // hash codes, which would otherwise fill runs of consecutive slots
+        private int shift = Integer.numberOfLeadingZeros(INITIAL_CAPACITY - 1);
+
+        private int size;
+
+        int indexOf(String name) {
+            int mask = names.length - 1;
+            for (int slot = slot(name); names[slot] != null; slot = (slot + 1) & mask) {
+                if (names[slot].equals(name)) {
+                    return indexes[slot];
+                }
+            }
+            return -1;
+        }
+
+        void add(String name) {
+            if (4 * (size + 1) > 3 * names.length) {
+                grow();
+            }
+            put(name, size++);
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int slot(String name) {
+            return (name.hashCode() * 0x9E3779B9) >>> shift;
+        }
+
+        private void put(String name, int index) {
+            int mask = names.length - 1;
+            int slot = slot(name);
+            while (names[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            indexes[slot] = index;
+        }
+
+        private void grow() {
+            String[] oldNames = names;
+            int[] oldIndexes = indexes;
+            names = new String[oldNames.length * 2];
+            indexes = new int[oldNames.length * 2];
+            shift--;
+            for (int slot = 0; slot < oldNames.length; slot++) {
+                if (oldNames[slot] != null) {
+                    put(oldNames[slot], oldIndexes[slot]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.olvera.hospital.encoding;
+
+import org.springframework.http.MediaType;
+
+/**
+ * A compact binary encoding of a stream of appointments, for clients that fetch them by the ten thousand.
+ * <p>
+ * A stream starts with the magic bytes {@code HAPT} and a version byte, then holds one record per appointment and
+ * ends with an {@link #END} tag. Numbers are unsigned LEB128 varints; signed ones are zigzag encoded first.
+ * A record is:
+ * <ol>
+ *     <li>its tag, {@link #APPOINTMENT}, or {@link #APPOINTMENT_WITH_SECONDS} when its time is not a whole minute;</li>
+ *     <li>the appointment, doctor and consulting room IDs;</li>
+ *     <li>the consultation time in minutes since 1970-01-01T00:00, as a signed difference from the time of the
+ *     previous record, or from 0 for the first one; appointments are usually sorted by time, so this is a byte
+ *     or two. With {@link #APPOINTMENT_WITH_SECONDS}, the nanoseconds within the minute follow;</li>
+ *     <li>the patient name: {@code 0} followed by its UTF-8 length and bytes the first time it appears, otherwise
+ *     1 + the index it was given. Names are indexed in the order they first appear, up to
+ *     {@link #MAX_DICTIONARY_SIZE} of them; names appearing after that are always written out.</li>
+ * </ol>
+ * {@link AppointmentBinaryDecoder} is the reference decoder.
+ */
+public final class AppointmentBinaryFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.hospital.appointments";
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    static final byte[] MAGIC = {'H', 'A', 'P', 'T'};
+
+    static final int VERSION = 1;
+
+    static final int END = 0;
+
+    static final int APPOINTMENT = 1;
+
+    static final int APPOINTMENT_WITH_SECONDS = 2;
+
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private AppointmentBinaryFormat() {
+    }
+}
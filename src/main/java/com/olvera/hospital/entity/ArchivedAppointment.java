@@ -0,0 +1,35 @@
+package com.olvera.hospital.entity;
+
+import com.olvera.hospital.util.AppointmentStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "appointment_archive")
+@Immutable
+@Getter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    private Long doctorId;
+
+    private Long consultingRoomId;
+
+    private LocalDateTime consultationTime;
+
+    private String patientName;
+
+    @Enumerated(EnumType.STRING)
+    private AppointmentStatus status;
+
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,41 @@
+package com.olvera.hospital.event;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.util.AppointmentChangeType;
+
+import java.util.stream.Stream;
+
+/**
+ * Published once an appointment has been created, edited, cancelled or archived, with the appointment as it was
+ * before the change and as it is after it. A created appointment has no previous state; a cancelled or archived
+ * one has no current state.
+ *
+ * @param type     what happened to the appointment
+ * @param previous the appointment before the change, or {@code null} when it was created
+ * @param current  the appointment after the change, or {@code null} when it was cancelled or archived
+ */
+public record AppointmentChangedEvent(AppointmentChangeType type, AppointmentDto previous, AppointmentDto current) {
+
+    public static AppointmentChangedEvent created(AppointmentDto current) {
+        return new AppointmentChangedEvent(AppointmentChangeType.CREATED, null, current);
+    }
+
+    public static AppointmentChangedEvent edited(AppointmentDto previous, AppointmentDto current) {
+        return new AppointmentChangedEvent(AppointmentChangeType.EDITED, previous, current);
+    }
+
+    public static AppointmentChangedEvent cancelled(AppointmentDto previous) {
+        return new AppointmentChangedEvent(AppointmentChangeType.CANCELLED, previous, null);
+    }
+
+    public static AppointmentChangedEvent archived(AppointmentDto previous) {
+        return new AppointmentChangedEvent(AppointmentChangeType.ARCHIVED, previous, null);
+    }
+
+    /**
+     * The states of the appointment the change touched: the slot it left, the slot it took, or both.
+     */
+    public Stream<AppointmentDto> states() {
+        return Stream.of(previous, current).filter(state -> state != null);
+    }
+}
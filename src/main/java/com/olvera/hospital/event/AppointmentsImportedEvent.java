@@ -0,0 +1,15 @@
+package com.olvera.hospital.event;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published once a chunk of historical appointments has been imported. Imported appointments are past ones, so
+ * they take no slot anyone can book; only the schedules of their days and the patients have changed.
+ *
+ * @param days         the days the imported appointments took place on
+ * @param patientNames the patient of each imported appointment that is not cancelled, by appointment ID
+ */
+public record AppointmentsImportedEvent(Set<LocalDate> days, Map<Long, String> patientNames) {
+}
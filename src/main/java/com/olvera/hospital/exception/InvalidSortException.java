@@ -0,0 +1,17 @@
+package com.olvera.hospital.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidSortException extends RuntimeException {
+
+    public InvalidSortException(String property, Collection<String> sortableProperties) {
+        super(String.format("Appointments cannot be sorted by '%s'. Sort by one of: %s", property,
+                String.join(", ", new TreeSet<>(sortableProperties))));
+    }
+
+}
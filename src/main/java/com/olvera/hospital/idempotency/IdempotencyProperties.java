@@ -0,0 +1,18 @@
+package com.olvera.hospital.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Idempotency keys of appointment creation.
+ *
+ * @param maximumSize how many keys are remembered at most; the least recently used are forgotten first
+ * @param retention   how long a key is remembered after its first request
+ */
+@ConfigurationProperties(prefix = "hospital.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("50000") long maximumSize,
+        @DefaultValue("PT24H") Duration retention) {
+}
@@ -0,0 +1,95 @@
+package com.olvera.hospital.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olvera.hospital.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Outcomes of requests carrying an {@code Idempotency-Key}, so that a client retrying a request it got no answer
+ * to is served the outcome of the first attempt instead of running it again. Duplicates arriving while the first
+ * attempt still runs wait for it rather than racing it.
+ * <p>
+ * Only successes are remembered: a failed request changed nothing, so its key is forgotten and a retry runs anew.
+ */
+@Component
+public class IdempotentRequests {
+
+    private static final String CACHE_NAME = "idempotencyKeys";
+
+    private final Cache<String, Execution> executions;
+
+    public IdempotentRequests(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.retention())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, executions, CACHE_NAME);
+    }
+
+    /**
+     * The outcome of a request.
+     *
+     * @param value    what the request returned
+     * @param replayed whether it was returned by an earlier request with the same key
+     */
+    public record Outcome<T>(T value, boolean replayed) {
+    }
+
+    /**
+     * Run the request unless one with the same key ran already or is running, in which case its outcome is
+     * returned, or its exception thrown, once it is done.
+     *
+     * @param key     the idempotency key chosen by the client
+     * @param request the request, compared with the one the key was first used with
+     * @param action  runs the request
+     * @throws IdempotencyKeyReusedException if the key was first used with a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String key, Object request, Supplier<T> action) {
+        Execution execution = new Execution(request, new CompletableFuture<>());
+        Execution first = executions.asMap().putIfAbsent(key, execution);
+        if (first != null) {
+            if (!first.request().equals(request)) {
+                throw new IdempotencyKeyReusedException(
+                        "Idempotency key " + key + " was already used with a different request.");
+            }
+            return new Outcome<>((T) await(first.result()), true);
+        }
+
+        try {
+            T value = action.get();
+            execution.result().complete(value);
+            return new Outcome<>(value, false);
+        } catch (RuntimeException | Error e) {
+            executions.asMap().remove(key, execution);
+            execution.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Rethrown as the first request threw it, so the duplicates get the same error response
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Execution(Object request, CompletableFuture<Object> result) {
+    }
+}
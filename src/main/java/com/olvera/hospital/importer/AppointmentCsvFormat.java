@@ -0,0 +1,148 @@
+package com.olvera.hospital.importer;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.entity.Doctor;
+import com.olvera.hospital.util.AppointmentStatus;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The columns of an appointment CSV file, read from its header, and the lookup tables that resolve the doctors
+ * and consulting rooms it names. The tables are built once per file, so resolving a row costs two map lookups.
+ * <p>
+ * Required columns: {@code doctor} (full name, with or without the middle name), {@code consulting_room}
+ * (room number), {@code consultation_time} ({@code yyyy-MM-ddTHH:mm}, a space is accepted instead of the
+ * {@code T}) and {@code patient_name}. The {@code status} column is optional.
+ */
+public final class AppointmentCsvFormat {
+
+    private static final String DOCTOR = "doctor";
+
+    private static final String CONSULTING_ROOM = "consulting_room";
+
+    private static final String CONSULTATION_TIME = "consultation_time";
+
+    private static final String PATIENT_NAME = "patient_name";
+
+    private static final String STATUS = "status";
+
+    private static final Long AMBIGUOUS = -1L;
+
+    private final int doctorColumn;
+
+    private final int consultingRoomColumn;
+
+    private final int consultationTimeColumn;
+
+    private final int patientNameColumn;
+
+    private final int statusColumn;
+
+    private final Map<String, Long> doctorIds = new HashMap<>();
+
+    private final Map<String, Long> consultingRoomIds = new HashMap<>();
+
+    public AppointmentCsvFormat(List<String> header, List<Doctor> doctors, List<ConsultingRoom> consultingRooms) {
+        // A byte order mark, when the file has one, sticks to the first column name
+        List<String> columns = header.stream().map(column -> key(column.replace("\uFEFF", ""))).toList();
+        this.doctorColumn = requiredColumn(columns, DOCTOR);
+        this.consultingRoomColumn = requiredColumn(columns, CONSULTING_ROOM);
+        this.consultationTimeColumn = requiredColumn(columns, CONSULTATION_TIME);
+        this.patientNameColumn = requiredColumn(columns, PATIENT_NAME);
+        this.statusColumn = columns.indexOf(STATUS);
+
+        for (Doctor doctor : doctors) {
+            register(doctorIds, key(doctor.getFirstName() + " " + doctor.getLastName()), doctor.getId());
+            if (doctor.getMiddleName() != null) {
+                register(doctorIds, key(doctor.getFirstName() + " " + doctor.getMiddleName() + " "
+                        + doctor.getLastName()), doctor.getId());
+            }
+        }
+        consultingRooms.forEach(room -> register(consultingRoomIds, key(room.getRoomNumber()), room.getId()));
+    }
+
+    /**
+     * Parse and resolve a row.
+     *
+     * @throws IllegalArgumentException if a value is missing or invalid, or names no single doctor or room
+     */
+    public ImportedAppointment parse(int line, List<String> fields) {
+        String doctor = field(fields, doctorColumn, DOCTOR);
+        String consultingRoom = field(fields, consultingRoomColumn, CONSULTING_ROOM);
+        String consultationTime = field(fields, consultationTimeColumn, CONSULTATION_TIME);
+        String patientName = field(fields, patientNameColumn, PATIENT_NAME);
+        String status = statusColumn < 0 || statusColumn >= fields.size() ? "" : fields.get(statusColumn).trim();
+
+        return new ImportedAppointment(line, AppointmentDto.builder()
+                .doctorId(resolve(doctorIds, doctor, "doctor"))
+                .consultingRoomId(resolve(consultingRoomIds, consultingRoom, "consulting room"))
+                .consultationTime(parseTime(consultationTime))
+                .patientName(patientName)
+                .build(),
+                status.isEmpty() ? null : parseStatus(status));
+    }
+
+    private static int requiredColumn(List<String> columns, String column) {
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("The CSV header has no " + column + " column.");
+        }
+        return index;
+    }
+
+    private static String field(List<String> fields, int column, String name) {
+        String value = column < fields.size() ? fields.get(column).trim() : "";
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("The " + name + " is missing.");
+        }
+        return value;
+    }
+
+    private static Long resolve(Map<String, Long> ids, String name, String kind) {
+        Long id = ids.get(key(name));
+        if (id == null) {
+            throw new IllegalArgumentException("No " + kind + " named " + name + ".");
+        }
+        if (AMBIGUOUS.equals(id)) {
+            throw new IllegalArgumentException("More than one " + kind + " is named " + name + ".");
+        }
+        return id;
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        try {
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid consultation time " + value + ".");
+        }
+    }
+
+    private static AppointmentStatus parseStatus(String value) {
+        try {
+            return AppointmentStatus.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status " + value + ".");
+        }
+    }
+
+    private static void register(Map<String, Long> ids, String key, Long id) {
+        ids.merge(key, id, (existing, added) -> existing.equals(added) ? existing : AMBIGUOUS);
+    }
+
+    /**
+     * Names are matched ignoring case and extra whitespace.
+     */
+    private static String key(String name) {
+        return Stream.of(name.trim().split("\\s+"))
+                .map(part -> part.toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(" "));
+    }
+}
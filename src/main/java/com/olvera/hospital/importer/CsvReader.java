@@ -0,0 +1,125 @@
+package com.olvera.hospital.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time, so a file of any size is parsed in constant memory. Fields may be
+ * quoted, with doubled quotes inside and line breaks spanning lines; blank lines are skipped.
+ * <p>
+ * Fields and records are capped in length: a stray quote would otherwise read the rest of the file into one field.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int END = -1;
+
+    static final int MAX_FIELD_LENGTH = 1024;
+
+    static final int MAX_RECORD_LENGTH = 8 * 1024;
+
+    private final BufferedReader reader;
+
+    private final StringBuilder field = new StringBuilder();
+
+    private int line = 1;
+
+    private int recordLine;
+
+    private int recordLength;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader bufferedReader ? bufferedReader
+                : new BufferedReader(reader, 1 << 16);
+    }
+
+    /**
+     * The next record, or {@code null} at the end of the input.
+     *
+     * @throws IllegalArgumentException if a quoted field is not closed, or a field or the record is too long; the
+     *                                  records after it cannot be told apart
+     */
+    public List<String> next() throws IOException {
+        List<String> record = readRecord();
+        while (record != null && record.size() == 1 && record.get(0).isEmpty()) {
+            record = readRecord();
+        }
+        return record;
+    }
+
+    /**
+     * The line the record last returned by {@link #next()} starts on, counting from 1.
+     */
+    public int lineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == END) {
+            return null;
+        }
+
+        recordLine = line;
+        recordLength = 0;
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+
+        while (true) {
+            if (++recordLength > MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException("Record starting on line " + recordLine + " is longer than "
+                        + MAX_RECORD_LENGTH + " characters.");
+            }
+            if (quoted) {
+                if (c == END) {
+                    throw new IllegalArgumentException("Unclosed quoted field starting on line " + recordLine + ".");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == END) {
+                if (c == '\n') {
+                    line++;
+                }
+                record.add(field.toString());
+                return record;
+            } else if (c != '\r') {
+                append(c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private void append(int c) {
+        if (field.length() == MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Field of the record starting on line " + recordLine
+                    + " is longer than " + MAX_FIELD_LENGTH + " characters; is a quote left unclosed?");
+        }
+        field.append((char) c);
+    }
+}
@@ -0,0 +1,17 @@
+package com.olvera.hospital.importer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bulk import of historical appointments.
+ *
+ * @param chunkSize     how many rows are inserted per transaction; a chunk breaking a constraint is split until the
+ *                      rows breaking it are found and skipped
+ * @param jdbcBatchSize how many inserts are sent per JDBC batch, after which the persistence context is cleared
+ */
+@ConfigurationProperties(prefix = "hospital.import")
+public record ImportProperties(
+        @DefaultValue("5000") int chunkSize,
+        @DefaultValue("1000") int jdbcBatchSize) {
+}
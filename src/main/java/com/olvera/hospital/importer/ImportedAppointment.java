@@ -0,0 +1,14 @@
+package com.olvera.hospital.importer;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.util.AppointmentStatus;
+
+/**
+ * One CSV row, parsed and resolved.
+ *
+ * @param line        the line the row starts on
+ * @param appointment the appointment, with the doctor and consulting room IDs resolved
+ * @param status      the status of the row, or {@code null} when it has none
+ */
+public record ImportedAppointment(int line, AppointmentDto appointment, AppointmentStatus status) {
+}
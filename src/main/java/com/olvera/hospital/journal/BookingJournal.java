@@ -0,0 +1,210 @@
+package com.olvera.hospital.journal;
+
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.repository.BookedSlot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only journal of every committed booking change, kept as the audit trail of the schedule and as the
+ * source the {@link com.olvera.hospital.scheduling.OccupancyIndex} is rebuilt from on startup.
+ * <p>
+ * Changes are queued when their transaction commits and appended by a writer thread of its own, so a booking
+ * never waits for the journal. The writer keeps the slots the journal books in memory, to write a snapshot every
+ * time a segment fills up; replay then reads the latest snapshot and the records appended since, however long
+ * the journal grows.
+ * <p>
+ * The journal only records what it is told, and the database stays the source of truth. A change dropped because
+ * the queue is full, or that could not be appended, marks the journal inconsistent, as damaged files do: it then
+ * books nothing until {@link #rebase} restarts it from the database, which the occupancy index loader does on the
+ * next startup.
+ */
+@Component
+@ConditionalOnProperty(prefix = "hospital.journal", name = "enabled", havingValue = "true")
+@Slf4j
+public class BookingJournal {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private final JournalStore store;
+
+    private final Map<Long, JournalSlot> booked = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final BlockingQueue<JournalRecord> queue;
+
+    private final long flushIntervalNanos;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public BookingJournal(JournalProperties properties) throws IOException {
+        long started = System.nanoTime();
+        this.store = JournalStore.open(properties.directory(), (int) properties.segmentSize().toBytes(),
+                slot -> booked.put(slot.appointmentId(), slot), this::apply);
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.flushIntervalNanos = properties.flushInterval().toNanos();
+
+        log.info("Booking journal replayed {} booked slots from {} in {} ms", booked.size(),
+                properties.directory(), (System.nanoTime() - started) / 1_000_000);
+
+        this.writer = new Thread(this::write, "booking-journal");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        JournalRecord record = JournalRecord.from(event, System.currentTimeMillis());
+        if (!queue.offer(record)) {
+            log.warn("Booking journal queue is full, dropped {} of appointment {}",
+                    record.type(), record.slot().appointmentId());
+            markInconsistent();
+        }
+    }
+
+    /**
+     * The slots the journal books from a day onwards, or nothing when the journal is damaged and may miss some.
+     */
+    public Optional<List<JournalSlot>> bookedSlotsFrom(LocalDate day) {
+        lock.lock();
+        try {
+            if (!store.isConsistent()) {
+                return Optional.empty();
+            }
+            return Optional.of(booked.values().stream()
+                    .filter(slot -> !slot.consultationTime().toLocalDate().isBefore(day))
+                    .toList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restart the journal from slots read elsewhere: a snapshot of them replaces everything journaled so far.
+     */
+    public void rebase(Collection<? extends BookedSlot> slots) {
+        lock.lock();
+        try {
+            booked.clear();
+            slots.forEach(slot -> booked.put(slot.getId(), JournalSlot.from(slot)));
+            store.writeSnapshot(store.roll(), booked.values());
+            store.markConsistent();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join();
+        store.close();
+    }
+
+    private void write() {
+        List<JournalRecord> batch = new ArrayList<>(BATCH_SIZE);
+        long lastForce = System.nanoTime();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                JournalRecord first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    append(batch);
+                    batch.clear();
+                }
+                if (System.nanoTime() - lastForce >= flushIntervalNanos) {
+                    force();
+                    lastForce = System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: drain what is left, then stop
+            } catch (IOException | RuntimeException e) {
+                log.error("Booking journal could not append {} changes", batch.size(), e);
+                batch.clear();
+                markInconsistent();
+            }
+        }
+    }
+
+    private void markInconsistent() {
+        lock.lock();
+        try {
+            store.markInconsistent();
+        } catch (IOException e) {
+            // Still inconsistent until this process stops
+            log.error("Booking journal could not record that it missed changes", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(List<JournalRecord> batch) throws IOException {
+        lock.lock();
+        try {
+            for (JournalRecord record : batch) {
+                if (store.append(record)) {
+                    snapshot(store.segment() - 1);
+                }
+                apply(record);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Snapshot the slots booked when a segment was sealed, leaving out the days already past.
+     */
+    private void snapshot(long sealedSegment) throws IOException {
+        LocalDate today = LocalDate.now();
+        booked.values().removeIf(slot -> slot.consultationTime().toLocalDate().isBefore(today));
+        store.writeSnapshot(sealedSegment, booked.values());
+    }
+
+    private void force() {
+        lock.lock();
+        try {
+            store.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(JournalRecord record) {
+        if (record.booked()) {
+            booked.put(record.slot().appointmentId(), record.slot());
+        } else {
+            booked.remove(record.slot().appointmentId());
+        }
+    }
+}
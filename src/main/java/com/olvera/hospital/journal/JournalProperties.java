@@ -0,0 +1,27 @@
+package com.olvera.hospital.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Booking journal storage.
+ *
+ * @param enabled       whether bookings are journaled and the occupancy index is rebuilt from the journal on startup
+ * @param directory     directory of the segment and snapshot files
+ * @param segmentSize   size of a segment file; a snapshot is written every time one fills up
+ * @param queueCapacity how many changes can wait for the journal writer before new ones are dropped, which has the
+ *                      journal rebuilt from the database on the next startup
+ * @param flushInterval how often appended records are forced to disk
+ */
+@ConfigurationProperties(prefix = "hospital.journal")
+public record JournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("journal") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("65536") int queueCapacity,
+        @DefaultValue("1s") Duration flushInterval) {
+}
@@ -0,0 +1,42 @@
+package com.olvera.hospital.journal;
+
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.util.AppointmentChangeType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One change of the booking journal: the slot an appointment took when it was created or edited, or the slot it
+ * released when it was cancelled or archived.
+ *
+ * @param type       what happened to the appointment
+ * @param recordedAt when the change was committed, in epoch milliseconds
+ * @param slot       the slot taken or released
+ */
+public record JournalRecord(AppointmentChangeType type, long recordedAt, JournalSlot slot) {
+
+    private static final AppointmentChangeType[] TYPES = AppointmentChangeType.values();
+
+    public static JournalRecord from(AppointmentChangedEvent event, long recordedAt) {
+        return new JournalRecord(event.type(), recordedAt,
+                JournalSlot.from(event.current() != null ? event.current() : event.previous()));
+    }
+
+    /**
+     * Whether the appointment holds the slot after this change.
+     */
+    public boolean booked() {
+        return type == AppointmentChangeType.CREATED || type == AppointmentChangeType.EDITED;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.put((byte) type.ordinal()).putLong(recordedAt);
+        slot.writeTo(buffer);
+    }
+
+    static JournalRecord readFrom(ByteBuffer buffer) {
+        AppointmentChangeType type = TYPES[buffer.get()];
+        long recordedAt = buffer.getLong();
+        return new JournalRecord(type, recordedAt, JournalSlot.readFrom(buffer));
+    }
+}
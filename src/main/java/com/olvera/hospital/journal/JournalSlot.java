@@ -0,0 +1,72 @@
+package com.olvera.hospital.journal;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.repository.BookedSlot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The slot an appointment holds, as the journal stores it. Consultation times are kept to the second.
+ */
+public record JournalSlot(long appointmentId, long doctorId, long consultingRoomId, LocalDateTime consultationTime,
+                          String patientName) implements BookedSlot {
+
+    static JournalSlot from(AppointmentDto appointment) {
+        return new JournalSlot(appointment.getId(), appointment.getDoctorId(), appointment.getConsultingRoomId(),
+                appointment.getConsultationTime(), appointment.getPatientName());
+    }
+
+    static JournalSlot from(BookedSlot slot) {
+        return slot instanceof JournalSlot journalSlot ? journalSlot : new JournalSlot(slot.getId(),
+                slot.getDoctorId(), slot.getConsultingRoomId(), slot.getConsultationTime(), slot.getPatientName());
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        byte[] name = patientName.getBytes(StandardCharsets.UTF_8);
+        buffer.putLong(appointmentId)
+                .putLong(doctorId)
+                .putLong(consultingRoomId)
+                .putLong(consultationTime.toEpochSecond(ZoneOffset.UTC))
+                .putShort((short) name.length)
+                .put(name);
+    }
+
+    static JournalSlot readFrom(ByteBuffer buffer) {
+        long appointmentId = buffer.getLong();
+        long doctorId = buffer.getLong();
+        long consultingRoomId = buffer.getLong();
+        LocalDateTime consultationTime = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(name);
+        return new JournalSlot(appointmentId, doctorId, consultingRoomId, consultationTime,
+                new String(name, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Long getId() {
+        return appointmentId;
+    }
+
+    @Override
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    @Override
+    public Long getConsultingRoomId() {
+        return consultingRoomId;
+    }
+
+    @Override
+    public String getPatientName() {
+        return patientName;
+    }
+
+    @Override
+    public LocalDateTime getConsultationTime() {
+        return consultationTime;
+    }
+}
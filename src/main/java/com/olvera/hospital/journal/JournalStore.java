@@ -0,0 +1,434 @@
+package com.olvera.hospital.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Segment and snapshot files of the booking journal, in one directory.
+ * <p>
+ * Records are appended to the current segment, a fixed-size file mapped into memory. Each record is framed by its
+ * length and a CRC32C checksum, and the unused tail of a segment is zeros, so replay stops at the first empty frame
+ * and drops a record that a crash left half written. When a segment fills up it is sealed and the next one started.
+ * <p>
+ * A snapshot lists every slot booked at the end of a sealed segment. Once it is written, that segment and the ones
+ * before it are compacted away: they move to the {@code audit} subdirectory, where they stay as the audit trail
+ * but are never replayed again.
+ * <p>
+ * A journal that missed a change is marked inconsistent with a marker file, so that it stays inconsistent across
+ * restarts until it is restarted from a snapshot of the database. An open journal keeps a second, dirty marker that
+ * only {@link #close} removes: when the process dies instead, the changes still queued for the journal are lost, so
+ * the next open that finds the dirty marker marks the journal inconsistent.
+ * <p>
+ * Not thread-safe: {@link BookingJournal} serializes every call.
+ */
+@Slf4j
+public final class JournalStore implements Closeable {
+
+    public static final String AUDIT_DIRECTORY = "audit";
+
+    static final String INCONSISTENT_MARKER = "inconsistent";
+
+    static final String DIRTY_MARKER = "dirty";
+
+    private static final int SEGMENT_MAGIC = 0x484A4E4C;
+
+    private static final int SNAPSHOT_MAGIC = 0x484A534E;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int SEGMENT_HEADER_BYTES = 8;
+
+    private static final int FRAME_HEADER_BYTES = 8;
+
+    private static final int SNAPSHOT_HEADER_BYTES = 20;
+
+    private static final int MAX_RECORD_BYTES = 1024;
+
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.log");
+
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.snap");
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_BYTES);
+
+    private final CRC32C checksum = new CRC32C();
+
+    private long segment;
+
+    private MappedByteBuffer buffer;
+
+    private boolean consistent = true;
+
+    private JournalStore(Path directory, int segmentSize) {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("A journal segment must hold at least " + MIN_SEGMENT_SIZE + " bytes.");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * How a segment replay ended.
+     *
+     * @param position the offset right after the last valid record
+     * @param torn     whether replay stopped at a damaged record rather than at the end of the data
+     */
+    private record SegmentEnd(int position, boolean torn) {
+    }
+
+    /**
+     * Open the journal in a directory, replaying it in order: the slots of the latest snapshot, then every record
+     * appended since. Appending resumes right after the last valid record.
+     *
+     * @param directory     the journal directory, created if missing
+     * @param segmentSize   the size of the segment files
+     * @param snapshotSlots receives the slots of the latest snapshot
+     * @param records       receives the records appended after the snapshot
+     * @return the opened journal
+     */
+    public static JournalStore open(Path directory, int segmentSize, Consumer<JournalSlot> snapshotSlots,
+                                    Consumer<JournalRecord> records) throws IOException {
+        Files.createDirectories(directory.resolve(AUDIT_DIRECTORY));
+        JournalStore store = new JournalStore(directory, segmentSize);
+        store.consistent = !Files.exists(directory.resolve(INCONSISTENT_MARKER));
+        if (Files.exists(directory.resolve(DIRTY_MARKER))) {
+            log.warn("Journal in {} was not closed, changes queued for it may be lost", directory);
+            store.markInconsistent();
+        } else {
+            Files.createFile(directory.resolve(DIRTY_MARKER));
+        }
+
+        long covered = store.readLatestSnapshot(snapshotSlots);
+        // Finish a compaction a crash interrupted
+        store.compact(covered);
+
+        List<Long> segments = store.files(SEGMENT_FILE);
+        long lastSegment = segments.isEmpty() ? covered : segments.get(segments.size() - 1);
+
+        for (long index : segments) {
+            Path file = store.segmentPath(index);
+            MappedByteBuffer mapped = map(file, (int) Math.max(Files.size(file), segmentSize));
+            SegmentEnd end = replay(mapped, records);
+
+            if (index == lastSegment) {
+                store.segment = index;
+                store.buffer = mapped;
+                // A crash right after the segment was created can leave it without a header
+                store.buffer.putInt(0, SEGMENT_MAGIC).putInt(4, FORMAT_VERSION);
+                store.buffer.position(end.position());
+                store.clearTail();
+            } else if (end.torn()) {
+                // Records after a damaged one are lost: leave the rest to the caller to rebuild
+                log.warn("Journal segment {} is damaged at offset {}, replay stopped", index, end.position());
+                store.consistent = false;
+                store.startSegment(lastSegment + 1);
+                return store;
+            }
+        }
+
+        if (store.buffer == null) {
+            store.startSegment(lastSegment + 1);
+        }
+        return store;
+    }
+
+    /**
+     * Whether the journal holds every change since the latest snapshot: it is not when it was damaged before its
+     * last segment, since replay stops at the damage, nor when it was not closed, nor once it was
+     * {@link #markInconsistent marked} so.
+     */
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    /**
+     * Record that a change was never appended. The journal stays inconsistent, across restarts too, until
+     * {@link #markConsistent} is called.
+     */
+    public void markInconsistent() throws IOException {
+        consistent = false;
+        if (!Files.exists(directory.resolve(INCONSISTENT_MARKER))) {
+            Files.createFile(directory.resolve(INCONSISTENT_MARKER));
+        }
+    }
+
+    /**
+     * Record that the latest snapshot holds every slot booked, as when it was written from the database.
+     */
+    public void markConsistent() throws IOException {
+        Files.deleteIfExists(directory.resolve(INCONSISTENT_MARKER));
+        consistent = true;
+    }
+
+    /**
+     * Append a record to the current segment, starting a new segment first when it is full.
+     *
+     * @return whether a segment was sealed to make room for the record
+     */
+    public boolean append(JournalRecord record) throws IOException {
+        scratch.clear();
+        record.writeTo(scratch);
+        scratch.flip();
+        int length = scratch.remaining();
+
+        checksum.reset();
+        checksum.update(scratch);
+        scratch.rewind();
+
+        boolean sealed = false;
+        if (buffer.remaining() < FRAME_HEADER_BYTES + length) {
+            roll();
+            sealed = true;
+        }
+
+        // The length is written last: a frame interrupted before it reads as the end of the segment
+        int frame = buffer.position();
+        buffer.position(frame + 4);
+        buffer.putInt((int) checksum.getValue());
+        buffer.put(scratch);
+        buffer.putInt(frame, length);
+        return sealed;
+    }
+
+    /**
+     * Seal the current segment and start the next one.
+     *
+     * @return the index of the sealed segment
+     */
+    public long roll() throws IOException {
+        buffer.force();
+        long sealed = segment;
+        startSegment(segment + 1);
+        return sealed;
+    }
+
+    /**
+     * The index of the segment records are appended to.
+     */
+    public long segment() {
+        return segment;
+    }
+
+    /**
+     * Write the slots booked at the end of a sealed segment, then compact that segment and the ones before it.
+     *
+     * @param sealedSegment the last segment the snapshot covers
+     * @param slots         every slot booked at the end of that segment
+     */
+    public void writeSnapshot(long sealedSegment, Collection<JournalSlot> slots) throws IOException {
+        Path snapshot = snapshotPath(sealedSegment);
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        CRC32C snapshotChecksum = new CRC32C();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(temporary), snapshotChecksum), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sealedSegment);
+            out.writeInt(slots.size());
+            for (JournalSlot slot : slots) {
+                scratch.clear();
+                slot.writeTo(scratch);
+                out.write(scratch.array(), 0, scratch.position());
+            }
+            out.flush();
+            out.writeInt((int) snapshotChecksum.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE);
+
+        compact(sealedSegment);
+    }
+
+    /**
+     * Force the records appended so far to disk.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        try {
+            Files.deleteIfExists(directory.resolve(DIRTY_MARKER));
+        } catch (IOException e) {
+            // The next open rebuilds the journal, as after a crash
+            log.error("Booking journal could not record that it was closed", e);
+        }
+    }
+
+    private long readLatestSnapshot(Consumer<JournalSlot> slots) throws IOException {
+        List<Long> snapshots = files(SNAPSHOT_FILE);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            long covered = snapshots.get(i);
+            List<JournalSlot> read = readSnapshot(snapshotPath(covered));
+            if (read != null) {
+                read.forEach(slots);
+                return covered;
+            }
+            log.warn("Journal snapshot {} is damaged, trying the previous one", covered);
+        }
+        return -1;
+    }
+
+    private static List<JournalSlot> readSnapshot(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size < SNAPSHOT_HEADER_BYTES + 4 || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer snapshot = map(file, 0);
+
+        CRC32C snapshotChecksum = new CRC32C();
+        snapshotChecksum.update(snapshot.slice(0, (int) size - 4));
+        if ((int) snapshotChecksum.getValue() != snapshot.getInt((int) size - 4)
+                || snapshot.getInt() != SNAPSHOT_MAGIC || snapshot.getInt() != FORMAT_VERSION) {
+            return null;
+        }
+
+        snapshot.getLong();
+        int count = snapshot.getInt();
+        List<JournalSlot> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            slots.add(JournalSlot.readFrom(snapshot));
+        }
+        return slots;
+    }
+
+    private static SegmentEnd replay(ByteBuffer segment, Consumer<JournalRecord> records) {
+        if (segment.getInt(0) != SEGMENT_MAGIC || segment.getInt(4) != FORMAT_VERSION) {
+            return new SegmentEnd(SEGMENT_HEADER_BYTES, true);
+        }
+
+        CRC32C recordChecksum = new CRC32C();
+        int position = SEGMENT_HEADER_BYTES;
+        while (position + FRAME_HEADER_BYTES <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length == 0) {
+                return new SegmentEnd(position, false);
+            }
+            int payload = position + FRAME_HEADER_BYTES;
+            if (length < 0 || length > MAX_RECORD_BYTES || payload + length > segment.limit()) {
+                return new SegmentEnd(position, true);
+            }
+
+            ByteBuffer record = segment.slice(payload, length);
+            recordChecksum.reset();
+            recordChecksum.update(record);
+            if ((int) recordChecksum.getValue() != segment.getInt(position + 4)) {
+                return new SegmentEnd(position, true);
+            }
+
+            records.accept(JournalRecord.readFrom(record.rewind()));
+            position = payload + length;
+        }
+        return new SegmentEnd(position, false);
+    }
+
+    /**
+     * Zero whatever a crash left after the last valid record, so it cannot be mistaken for records later on.
+     */
+    private void clearTail() {
+        int position = buffer.position();
+        int i = position;
+        for (; i + Long.BYTES <= buffer.limit(); i += Long.BYTES) {
+            if (buffer.getLong(i) != 0) {
+                break;
+            }
+        }
+        for (; i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                byte[] zeros = new byte[buffer.limit() - position];
+                buffer.put(position, zeros);
+                buffer.force();
+                return;
+            }
+        }
+    }
+
+    private void startSegment(long index) throws IOException {
+        buffer = map(segmentPath(index), segmentSize);
+        buffer.putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION);
+        segment = index;
+    }
+
+    private void compact(long covered) throws IOException {
+        for (long index : files(SEGMENT_FILE)) {
+            if (index <= covered) {
+                Path file = segmentPath(index);
+                Files.move(file, directory.resolve(AUDIT_DIRECTORY).resolve(file.getFileName()),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        for (long index : files(SNAPSHOT_FILE)) {
+            if (index < covered) {
+                Files.delete(snapshotPath(index));
+            }
+        }
+    }
+
+    private List<Long> files(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> pattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("segment-%019d.log", index));
+    }
+
+    private Path snapshotPath(long index) {
+        return directory.resolve(String.format("snapshot-%019d.snap", index));
+    }
+
+    /**
+     * Map a file into memory: read-write at the given size, growing the file if needed, or read-only as it is
+     * when the size is 0. The mapping stays valid after the channel is closed.
+     */
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        if (size == 0) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
@@ -8,9 +8,11 @@ public class AppointmentMapper {
     public static AppointmentDto toDto (Appointment appointment) {
 
         return AppointmentDto.builder()
+                .id(appointment.getId())
                 .doctorId(appointment.getDoctor().getId())
                 .consultingRoomId(appointment.getConsultingRoom().getId())
-                .patientName(appointment.getPatientName() )
+                .consultationTime(appointment.getConsultationTime())
+                .patientName(appointment.getPatientName())
                 .build();
     }
 
@@ -0,0 +1,115 @@
+package com.olvera.hospital.metrics;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.repository.DoctorRepository;
+import com.olvera.hospital.scheduling.OccupancyIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Booking metrics: a timer per validation step and data source, a counter per rejection reason and a gauge
+ * per doctor with today's booked slots, read from the {@link OccupancyIndex}. The doctors known at startup get their
+ * gauge then; a doctor added later gets it with their first booking.
+ */
+@Component
+@AllArgsConstructor
+public class BookingMetrics {
+
+    public static final String STEP_TIMER = "hospital.booking.step";
+
+    public static final String REJECTIONS_COUNTER = "hospital.booking.rejections";
+
+    public static final String DOCTOR_SLOTS_TODAY_GAUGE = "hospital.doctor.booked.slots.today";
+
+    public static final String INDEX = "index";
+
+    public static final String CACHE = "cache";
+
+    public static final String DATABASE = "database";
+
+    private MeterRegistry meterRegistry;
+
+    private OccupancyIndex occupancyIndex;
+
+    private DoctorRepository doctorRepository;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Set<Long> gaugedDoctors = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Run a booking step and record how long it took, whether it returned or threw.
+     *
+     * @param step   the step
+     * @param source where the step reads from: {@link #INDEX}, {@link #CACHE} or {@link #DATABASE}
+     */
+    public <T> T time(BookingStep step, String source, Supplier<T> supplier) {
+        return timers.computeIfAbsent(step + "/" + source, key -> Timer.builder(STEP_TIMER)
+                        .description("Time spent in each step of a booking")
+                        .tag("step", tagValue(step.name()))
+                        .tag("source", source)
+                        .register(meterRegistry))
+                .record(supplier);
+    }
+
+    /**
+     * Count a rejected booking.
+     *
+     * @param reason the rule or lookup that rejected it, e.g. {@code room_occupied}
+     */
+    public void rejected(String reason) {
+        counters.computeIfAbsent(reason, key -> Counter.builder(REJECTIONS_COUNTER)
+                        .description("Bookings rejected, by reason")
+                        .tag("reason", key)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    public void rejected(Enum<?> reason) {
+        rejected(tagValue(reason.name()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerDoctorGauges() {
+        doctorRepository.findAll().forEach(doctor -> registerDoctorGauge(doctor.getId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentDto current = event.current();
+        if (current != null) {
+            registerDoctorGauge(current.getDoctorId());
+        }
+    }
+
+    private void registerDoctorGauge(Long doctorId) {
+        if (gaugedDoctors.add(doctorId)) {
+            Gauge.builder(DOCTOR_SLOTS_TODAY_GAUGE, occupancyIndex,
+                            index -> index.doctorAppointments(doctorId, LocalDate.now()))
+                    .description("Slots booked today for the doctor")
+                    .tag("doctor_id", doctorId.toString())
+                    .register(meterRegistry);
+        }
+    }
+
+    private static String tagValue(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
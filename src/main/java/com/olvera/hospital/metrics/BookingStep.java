@@ -0,0 +1,15 @@
+package com.olvera.hospital.metrics;
+
+/**
+ * Steps of a single booking, each timed on its own.
+ */
+public enum BookingStep {
+    ROOM_CONFLICT,
+    DOCTOR_CONFLICT,
+    PATIENT_SPACING,
+    DAILY_CAP,
+    RULE_CHECK,
+    DOCTOR_LOOKUP,
+    CONSULTING_ROOM_LOOKUP,
+    SAVE
+}
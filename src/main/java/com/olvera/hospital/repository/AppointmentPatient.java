@@ -0,0 +1,11 @@
+package com.olvera.hospital.repository;
+
+/**
+ * Projection with the patient of an appointment, for the patient name index.
+ */
+public interface AppointmentPatient {
+
+    Long getId();
+
+    String getPatientName();
+}
@@ -2,52 +2,133 @@ package com.olvera.hospital.repository;
 
 import com.olvera.hospital.entity.Appointment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment>,
+        AppointmentRepositoryCustom {
 
+    String NOT_CANCELLED = "and a.status <> com.olvera.hospital.util.AppointmentStatus.CANCELLED";
 
     /**
-     * Check if an appointment exists for a specific consulting room at a specific time.
+     * Count, in a single statement, the appointments that are not cancelled and that each booking rule checks a
+     * new appointment against. Every count is a subquery of its own, so that each reads its own index.
      *
+     * @param doctorId         the ID of the doctor
      * @param consultingRoomId the ID of the consulting room
-     * @param consultationTime the time of the appointment
-     * @return true if the appointment exists, false otherwise
+     * @param patientName      the name of the patient
+     * @param consultationTime the time of the new appointment
+     * @param spacingStart     the exclusive lower bound of the patient spacing window
+     * @param spacingEnd       the exclusive upper bound of the patient spacing window
+     * @param dayStart         the start of the day of the new appointment
+     * @param dayEnd           the end of the day of the new appointment
+     * @return the count against each rule
      */
-    boolean existsByConsultingRoomIdAndConsultationTime(Long consultingRoomId, LocalDateTime consultationTime);
+    @Query(nativeQuery = true, value = "SELECT " +
+            "(SELECT COUNT(*) FROM appointment a WHERE a.consulting_room_id = :consultingRoomId " +
+            "AND a.consultation_time = :consultationTime AND a.status <> 'CANCELLED') AS roomBookings, " +
+            "(SELECT COUNT(*) FROM appointment a WHERE a.doctor_id = :doctorId " +
+            "AND a.consultation_time = :consultationTime AND a.status <> 'CANCELLED') AS doctorBookings, " +
+            "(SELECT COUNT(*) FROM appointment a WHERE a.patient_name = :patientName " +
+            "AND a.consultation_time BETWEEN :dayStart AND :dayEnd " +
+            "AND a.consultation_time > :spacingStart AND a.consultation_time < :spacingEnd " +
+            "AND a.status <> 'CANCELLED') AS patientBookingsTooClose, " +
+            "(SELECT COUNT(*) FROM appointment a WHERE a.doctor_id = :doctorId " +
+            "AND a.consultation_time BETWEEN :dayStart AND :dayEnd AND a.status <> 'CANCELLED') AS doctorDayBookings")
+    BookingRuleCounts countBookingRuleConflicts(@Param("doctorId") Long doctorId,
+                                                @Param("consultingRoomId") Long consultingRoomId,
+                                                @Param("patientName") String patientName,
+                                                @Param("consultationTime") LocalDateTime consultationTime,
+                                                @Param("spacingStart") LocalDateTime spacingStart,
+                                                @Param("spacingEnd") LocalDateTime spacingEnd,
+                                                @Param("dayStart") LocalDateTime dayStart,
+                                                @Param("dayEnd") LocalDateTime dayEnd);
 
     /**
-     * Check if an appointment exists for a specific doctor at a specific time.
+     * Count the number of appointments that are not cancelled for a specific doctor on a specific date.
      *
-     * @param doctorId         the ID of the doctor
-     * @param consultationTime the time of the appointment
-     * @return true if the appointment exists, false otherwise
+     * @param doctorId the ID of the doctor
+     * @param start     the date to check
+     * @return the count of appointments
      */
-    boolean existsByDoctorIdAndConsultationTime(Long doctorId, LocalDateTime consultationTime);
+    @Query("select count(a) from Appointment a where a.doctor.id = :doctorId " +
+            "and a.consultationTime between :start and :end " + NOT_CANCELLED)
+    Long countActiveByDoctorIdAndConsultationTimeBetween(@Param("doctorId") Long doctorId,
+                                                         @Param("start") LocalDateTime start,
+                                                         @Param("end") LocalDateTime end);
 
     /**
-     * Find all appointments for a specific patient on a specific date.
+     * Count the appointments that are not cancelled from a specific time onwards.
      *
-     * @param patientName the name of the patient
-     * @param start        the date to check
-     * @return a list of appointments
+     * @param from the earliest consultation time to include
+     * @return the count of appointments
      */
-    List<Appointment> findByPatientNameAndConsultationTimeBetween(String patientName, LocalDateTime start, LocalDateTime end);
+    @Query("select count(a) from Appointment a where a.consultationTime >= :from " + NOT_CANCELLED)
+    long countActiveFrom(@Param("from") LocalDateTime from);
 
     /**
-     * Count the number of appointments for a specific doctor on a specific date.
+     * Stream the booked slots of every appointment that is not cancelled from a specific time onwards.
+     * Must be consumed inside a transaction and closed afterwards.
      *
-     * @param doctorId the ID of the doctor
-     * @param start     the date to check
-     * @return the count of appointments
+     * @param from the earliest consultation time to include
+     * @return a stream of booked slots
      */
+    @Query("select a.id as id, a.doctor.id as doctorId, a.consultingRoom.id as consultingRoomId, " +
+            "a.patientName as patientName, a.consultationTime as consultationTime " +
+            "from Appointment a where a.consultationTime >= :from " + NOT_CANCELLED)
+    Stream<BookedSlot> streamBookedSlotsFrom(@Param("from") LocalDateTime from);
 
-    Long countByDoctorIdAndConsultationTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+    /**
+     * Stream the patient of every appointment that is not cancelled.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return a stream of appointment patients
+     */
+    @Query("select a.id as id, a.patientName as patientName from Appointment a " +
+            "where a.status <> com.olvera.hospital.util.AppointmentStatus.CANCELLED")
+    Stream<AppointmentPatient> streamActivePatients();
 
+    /**
+     * Find the booked slots of every appointment that is not cancelled within a time range.
+     *
+     * @param start the inclusive lower bound of the consultation time
+     * @param end   the exclusive upper bound of the consultation time
+     * @return a list of booked slots
+     */
+    @Query("select a.id as id, a.doctor.id as doctorId, a.consultingRoom.id as consultingRoomId, " +
+            "a.patientName as patientName, a.consultationTime as consultationTime " +
+            "from Appointment a where a.consultationTime >= :start and a.consultationTime < :end " + NOT_CANCELLED)
+    List<BookedSlot> findBookedSlotsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Find in one query the booked slots that can conflict with a batch of new appointments:
+     * those of any of the doctors, rooms or patients of the batch within the batch time range.
+     * Cancelled appointments hold no slot.
+     *
+     * @param start             the inclusive lower bound of the consultation time
+     * @param end               the exclusive upper bound of the consultation time
+     * @param doctorIds         the IDs of the doctors in the batch
+     * @param consultingRoomIds the IDs of the consulting rooms in the batch
+     * @param patientNames      the names of the patients in the batch
+     * @return a list of booked slots
+     */
+    @Query("select a.id as id, a.doctor.id as doctorId, a.consultingRoom.id as consultingRoomId, " +
+            "a.patientName as patientName, a.consultationTime as consultationTime " +
+            "from Appointment a where a.consultationTime >= :start and a.consultationTime < :end " +
+            "and (a.doctor.id in :doctorIds or a.consultingRoom.id in :consultingRoomIds or a.patientName in :patientNames) " +
+            NOT_CANCELLED)
+    List<BookedSlot> findBookedSlots(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                     @Param("doctorIds") Collection<Long> doctorIds,
+                                     @Param("consultingRoomIds") Collection<Long> consultingRoomIds,
+                                     @Param("patientNames") Collection<String> patientNames);
 
 }
 
@@ -0,0 +1,22 @@
+package com.olvera.hospital.repository;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface AppointmentRepositoryCustom {
+
+    /**
+     * Find a slice of appointments matching the given specification, projected straight into DTOs:
+     * no entity is loaded and the doctor and consulting room tables are not joined.
+     * Unlike a {@link org.springframework.data.domain.Page}, no count query is issued: one extra row is
+     * fetched to know whether a next slice exists.
+     *
+     * @param specification the filters to apply
+     * @param pageable      the requested page and sort order, must be paged
+     * @return a slice of appointments
+     */
+    Slice<AppointmentDto> findDtoSlice(Specification<Appointment> specification, Pageable pageable);
+}
@@ -0,0 +1,55 @@
+package com.olvera.hospital.repository;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<AppointmentDto> findDtoSlice(Specification<Appointment> specification, Pageable pageable) {
+        Assert.isTrue(pageable.isPaged(), "Appointment queries must be paginated");
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppointmentDto> query = cb.createQuery(AppointmentDto.class);
+        Root<Appointment> root = query.from(Appointment.class);
+        // The association IDs are read from the foreign key columns, so neither table is joined
+        query.select(cb.construct(AppointmentDto.class,
+                root.get("id"),
+                root.get("doctor").get("id"),
+                root.get("consultingRoom").get("id"),
+                root.get("consultationTime"),
+                root.get("patientName")));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        int pageSize = pageable.getPageSize();
+        List<AppointmentDto> content = entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        boolean hasNext = content.size() > pageSize;
+        return new SliceImpl<>(hasNext ? content.subList(0, pageSize) : content, pageable, hasNext);
+    }
+}
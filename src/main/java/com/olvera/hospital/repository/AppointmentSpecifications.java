@@ -0,0 +1,86 @@
+package com.olvera.hospital.repository;
+
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.util.AppointmentStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+public final class AppointmentSpecifications {
+
+    private AppointmentSpecifications() {
+    }
+
+    /**
+     * Build a specification that only contains the filters that were supplied, so the database
+     * receives the narrowest possible WHERE clause. Cancelled appointments are never listed.
+     *
+     * @param doctorId         the ID of the doctor, or null to skip the filter
+     * @param consultingRoomId the ID of the consulting room, or null to skip the filter
+     * @param start            inclusive lower bound of the consultation time, or null
+     * @param end              exclusive upper bound of the consultation time, or null
+     * @return the combined specification
+     */
+    public static Specification<Appointment> filter(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end) {
+        return Specification.where(notCancelled())
+                .and(hasDoctor(doctorId))
+                .and(inConsultingRoom(consultingRoomId))
+                .and(consultationTimeFrom(start))
+                .and(consultationTimeBefore(end));
+    }
+
+    public static Specification<Appointment> notCancelled() {
+        return (root, query, cb) -> cb.notEqual(root.get("status"), AppointmentStatus.CANCELLED);
+    }
+
+    public static Specification<Appointment> hasDoctor(Long doctorId) {
+        return doctorId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("doctor").get("id"), doctorId);
+    }
+
+    public static Specification<Appointment> inConsultingRoom(Long consultingRoomId) {
+        return consultingRoomId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("consultingRoom").get("id"), consultingRoomId);
+    }
+
+    public static Specification<Appointment> consultationTimeFrom(LocalDateTime start) {
+        return start == null ? null
+                : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("consultationTime"), start);
+    }
+
+    public static Specification<Appointment> consultationTimeBefore(LocalDateTime end) {
+        return end == null ? null
+                : (root, query, cb) -> cb.lessThan(root.get("consultationTime"), end);
+    }
+
+    /**
+     * Completed and cancelled appointments that took place before a given time: the ones that can be archived.
+     *
+     * @param cutoff the exclusive upper bound of the consultation time
+     * @return the specification
+     */
+    public static Specification<Appointment> closedBefore(LocalDateTime cutoff) {
+        return (root, query, cb) -> cb.and(
+                root.get("status").in(AppointmentStatus.COMPLETED, AppointmentStatus.CANCELLED),
+                cb.lessThan(root.get("consultationTime"), cutoff));
+    }
+
+    /**
+     * Keyset predicate for appointments ordered by consultation time and ID: matches every row that
+     * sorts strictly after the given position.
+     *
+     * @param consultationTime the consultation time of the last row already read, or null to start from the beginning
+     * @param id               the ID of the last row already read
+     * @return the keyset specification
+     */
+    public static Specification<Appointment> after(LocalDateTime consultationTime, Long id) {
+        return consultationTime == null ? null
+                : (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("consultationTime"), consultationTime),
+                cb.and(
+                        cb.equal(root.get("consultationTime"), consultationTime),
+                        cb.greaterThan(root.get("id"), id)
+                )
+        );
+    }
+}
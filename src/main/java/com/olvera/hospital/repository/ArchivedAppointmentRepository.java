@@ -0,0 +1,63 @@
+package com.olvera.hospital.repository;
+
+import com.olvera.hospital.dto.AppointmentHistoryDto;
+import com.olvera.hospital.entity.ArchivedAppointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    String HISTORY = "select new com.olvera.hospital.dto.AppointmentHistoryDto(a.id, a.doctorId, a.consultingRoomId, " +
+            "a.consultationTime, a.patientName, a.status, a.archivedAt) from ArchivedAppointment a ";
+
+    /**
+     * Copy appointments into the archive in a single statement.
+     *
+     * @param ids        the IDs of the appointments to copy
+     * @param archivedAt the time to record as the archival time
+     * @return the number of appointments copied
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO appointment_archive " +
+            "(id, doctor_id, consulting_room_id, consultation_time, patient_name, status, archived_at) " +
+            "SELECT id, doctor_id, consulting_room_id, consultation_time, patient_name, status, :archivedAt " +
+            "FROM appointment WHERE id IN (:ids)")
+    int copyFromAppointments(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Find a slice of the archived appointments of a doctor within a time range.
+     *
+     * @param doctorId the ID of the doctor
+     * @param start    the inclusive lower bound of the consultation time
+     * @param end      the exclusive upper bound of the consultation time
+     * @param pageable the requested page and sort order
+     * @return a slice of archived appointments
+     */
+    @Query(HISTORY + "where a.doctorId = :doctorId and a.consultationTime >= :start and a.consultationTime < :end")
+    Slice<AppointmentHistoryDto> findHistoryByDoctorId(@Param("doctorId") Long doctorId,
+                                                       @Param("start") LocalDateTime start,
+                                                       @Param("end") LocalDateTime end, Pageable pageable);
+
+    /**
+     * Find a slice of the archived appointments of a patient within a time range.
+     *
+     * @param patientName the name of the patient
+     * @param start       the inclusive lower bound of the consultation time
+     * @param end         the exclusive upper bound of the consultation time
+     * @param pageable    the requested page and sort order
+     * @return a slice of archived appointments
+     */
+    @Query(HISTORY + "where a.patientName = :patientName and a.consultationTime >= :start and a.consultationTime < :end")
+    Slice<AppointmentHistoryDto> findHistoryByPatientName(@Param("patientName") String patientName,
+                                                          @Param("start") LocalDateTime start,
+                                                          @Param("end") LocalDateTime end, Pageable pageable);
+}
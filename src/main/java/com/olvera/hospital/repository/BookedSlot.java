@@ -0,0 +1,19 @@
+package com.olvera.hospital.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection with the appointment columns the booking rules need, without loading doctors or rooms.
+ */
+public interface BookedSlot {
+
+    Long getId();
+
+    Long getDoctorId();
+
+    Long getConsultingRoomId();
+
+    String getPatientName();
+
+    LocalDateTime getConsultationTime();
+}
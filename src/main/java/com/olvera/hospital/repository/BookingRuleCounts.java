@@ -0,0 +1,28 @@
+package com.olvera.hospital.repository;
+
+/**
+ * Projection with, for a new appointment, the number of appointments that are not cancelled against each
+ * booking rule, all counted by a single query.
+ */
+public interface BookingRuleCounts {
+
+    /**
+     * Appointments in the same consulting room at the same time.
+     */
+    long getRoomBookings();
+
+    /**
+     * Appointments of the same doctor at the same time.
+     */
+    long getDoctorBookings();
+
+    /**
+     * Appointments of the same patient on the same day, closer in time than the patient spacing allows.
+     */
+    long getPatientBookingsTooClose();
+
+    /**
+     * Appointments of the same doctor on the same day.
+     */
+    long getDoctorDayBookings();
+}
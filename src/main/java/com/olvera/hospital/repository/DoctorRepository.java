@@ -4,11 +4,17 @@ import com.olvera.hospital.entity.Doctor;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import javax.print.Doc;
+import java.util.List;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
-
+    /**
+     * Find all doctors of a specialty.
+     *
+     * @param specialty the specialty, case-insensitive
+     * @return a list of doctors ordered by ID
+     */
+    List<Doctor> findBySpecialtyIgnoreCaseOrderById(String specialty);
 
 }
@@ -0,0 +1,18 @@
+package com.olvera.hospital.scheduling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Period;
+
+/**
+ * Archival of past appointments. The job itself runs every {@code hospital.archive.interval}.
+ *
+ * @param retention how long completed and cancelled appointments stay in the appointment table after their day
+ * @param batchSize how many appointments are moved per transaction
+ */
+@ConfigurationProperties(prefix = "hospital.archive")
+public record ArchiveProperties(
+        @DefaultValue("P7D") Period retention,
+        @DefaultValue("500") int batchSize) {
+}
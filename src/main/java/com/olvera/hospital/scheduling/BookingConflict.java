@@ -0,0 +1,20 @@
+package com.olvera.hospital.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of checking a requested booking against the booking rules, in the order the rules are evaluated.
+ */
+@Getter
+@AllArgsConstructor
+public enum BookingConflict {
+
+    NONE(null),
+    ROOM_OCCUPIED("Consulting room is already occupied at this time."),
+    DOCTOR_BOOKED("Doctor is already booked at this time."),
+    PATIENT_TOO_CLOSE("Patient must have at least 2 hours between appointments on the same day."),
+    DOCTOR_DAILY_LIMIT("Doctor cannot have more than 8 appointments per day.");
+
+    private final String message;
+}
@@ -0,0 +1,84 @@
+package com.olvera.hospital.scheduling;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks guarding the doctor/day, room/day and patient/day keys the booking rules are evaluated on.
+ * Bookings that share no key run in parallel; bookings that share one are serialized, so the check and the insert
+ * happen atomically with respect to each other. Stripes are always acquired in ascending order to avoid deadlocks.
+ */
+@Component
+public class BookingLocks {
+
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private final ReentrantLock[] appointmentLocks = new ReentrantLock[STRIPES];
+
+    public BookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            appointmentLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Run the action while holding the lock of an existing appointment, so its slot cannot change between reading it
+     * and locking it with {@link #withSlotsLocked}. Appointment locks are always taken before slot locks.
+     */
+    public <T> T withAppointmentLocked(Long appointmentId, Supplier<T> action) {
+        ReentrantLock lock = appointmentLocks[stripe('A', appointmentId, 0)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run the action while holding the locks of every doctor/day, room/day and patient/day key of the given slots.
+     * Slots with a missing field only lock the keys that can be derived.
+     */
+    public <T> T withSlotsLocked(Collection<AppointmentDto> slots, Supplier<T> action) {
+        BitSet stripes = new BitSet(STRIPES);
+        for (AppointmentDto slot : slots) {
+            if (slot == null || slot.getConsultationTime() == null) {
+                continue;
+            }
+            long day = slot.getConsultationTime().toLocalDate().toEpochDay();
+            stripes.set(stripe('D', slot.getDoctorId(), day));
+            stripes.set(stripe('R', slot.getConsultingRoomId(), day));
+            stripes.set(stripe('P', slot.getPatientName(), day));
+        }
+
+        int locked = -1;
+        try {
+            for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+                locks[i].lock();
+                locked = i;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked; i >= 0; i = stripes.previousSetBit(i - 1)) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    private static int stripe(char kind, Object key, long epochDay) {
+        int hash = 31 * (31 * kind + Objects.hashCode(key)) + Long.hashCode(epochDay);
+        hash ^= hash >>> 16;
+        hash *= 0x85EB_CA6B;
+        hash ^= hash >>> 13;
+        return hash & (STRIPES - 1);
+    }
+}
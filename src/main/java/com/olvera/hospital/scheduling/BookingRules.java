@@ -0,0 +1,17 @@
+package com.olvera.hospital.scheduling;
+
+public final class BookingRules {
+
+    /**
+     * Maximum number of appointments a doctor can attend on the same day.
+     */
+    public static final int MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY = 8;
+
+    /**
+     * Minimum number of minutes between two appointments of the same patient on the same day.
+     */
+    public static final int MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS = 120;
+
+    private BookingRules() {
+    }
+}
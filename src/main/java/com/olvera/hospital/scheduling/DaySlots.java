@@ -0,0 +1,68 @@
+package com.olvera.hospital.scheduling;
+
+/**
+ * Minute-resolution bitset of the bookings of a single doctor, room or patient on a single day.
+ */
+final class DaySlots {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final long[] minutes = new long[(MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE];
+
+    private int count;
+
+    synchronized boolean isBooked(int minute) {
+        return (minutes[minute >>> 6] & (1L << minute)) != 0;
+    }
+
+    /**
+     * Check whether any minute in the inclusive range is booked. The range is clamped to the day.
+     */
+    synchronized boolean anyBooked(int fromMinute, int toMinute) {
+        int from = Math.max(fromMinute, 0);
+        int to = Math.min(toMinute, MINUTES_PER_DAY - 1);
+        if (from > to) {
+            return false;
+        }
+
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            long mask = -1L;
+            if (word == firstWord) {
+                mask &= -1L << from;
+            }
+            if (word == lastWord) {
+                mask &= -1L >>> (Long.SIZE - 1 - (to & 63));
+            }
+            if ((minutes[word] & mask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized void book(int minute) {
+        long bit = 1L << minute;
+        if ((minutes[minute >>> 6] & bit) == 0) {
+            minutes[minute >>> 6] |= bit;
+            count++;
+        }
+    }
+
+    synchronized void release(int minute) {
+        long bit = 1L << minute;
+        if ((minutes[minute >>> 6] & bit) != 0) {
+            minutes[minute >>> 6] &= ~bit;
+            count--;
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return count == 0;
+    }
+}
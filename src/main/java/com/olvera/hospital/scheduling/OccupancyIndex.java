@@ -0,0 +1,203 @@
+package com.olvera.hospital.scheduling;
+
+import com.olvera.hospital.repository.BookedSlot;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static com.olvera.hospital.scheduling.BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY;
+import static com.olvera.hospital.scheduling.BookingRules.MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS;
+
+/**
+ * In-process index of booked minutes per doctor/day, room/day and patient/day.
+ * It answers every booking rule with a few map lookups and bit tests instead of database round trips.
+ * Only days from the horizon onwards are indexed; the horizon moves forward every day, and the days it leaves
+ * behind are dropped.
+ * <p>
+ * The index only holds the bookings made by this instance, or read at startup. It can reject a booking early, but
+ * only the database can accept one.
+ */
+@Component
+public class OccupancyIndex {
+
+    private final Map<Long, DaySlots> doctorDays = new ConcurrentHashMap<>();
+
+    private final Map<Long, DaySlots> roomDays = new ConcurrentHashMap<>();
+
+    private final Map<PatientDay, DaySlots> patientDays = new ConcurrentHashMap<>();
+
+    /**
+     * First indexed day. Nothing is covered until the index has been built.
+     */
+    private volatile LocalDate horizon = LocalDate.MAX;
+
+    public boolean covers(LocalDateTime time) {
+        return !time.toLocalDate().isBefore(horizon);
+    }
+
+    /**
+     * Check a requested booking against every booking rule.
+     *
+     * @return the first rule the booking breaks, or {@link BookingConflict#NONE}
+     */
+    public BookingConflict check(Long doctorId, Long consultingRoomId, String patientName, LocalDateTime time) {
+        long day = time.toLocalDate().toEpochDay();
+        int minute = minuteOfDay(time);
+
+        DaySlots room = roomDays.get(key(consultingRoomId, day));
+        if (room != null && room.isBooked(minute)) {
+            return BookingConflict.ROOM_OCCUPIED;
+        }
+
+        DaySlots doctor = doctorDays.get(key(doctorId, day));
+        if (doctor != null && doctor.isBooked(minute)) {
+            return BookingConflict.DOCTOR_BOOKED;
+        }
+
+        DaySlots patient = patientDays.get(new PatientDay(patientName, day));
+        if (patient != null && patient.anyBooked(minute - MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS + 1,
+                minute + MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS - 1)) {
+            return BookingConflict.PATIENT_TOO_CLOSE;
+        }
+
+        if (doctor != null && doctor.count() >= MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY) {
+            return BookingConflict.DOCTOR_DAILY_LIMIT;
+        }
+
+        return BookingConflict.NONE;
+    }
+
+    /**
+     * Check whether the doctor is free at the given time and still below the daily limit.
+     */
+    public boolean isDoctorAvailable(Long doctorId, LocalDateTime time) {
+        return isDoctorFree(doctorId, time)
+                && doctorAppointments(doctorId, time.toLocalDate()) < MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY;
+    }
+
+    /**
+     * Check whether the doctor has no appointment at the given time.
+     */
+    public boolean isDoctorFree(Long doctorId, LocalDateTime time) {
+        DaySlots doctor = doctorDays.get(key(doctorId, time.toLocalDate().toEpochDay()));
+        return doctor == null || !doctor.isBooked(minuteOfDay(time));
+    }
+
+    /**
+     * Check whether the consulting room is free at the given time.
+     */
+    public boolean isRoomFree(Long consultingRoomId, LocalDateTime time) {
+        DaySlots room = roomDays.get(key(consultingRoomId, time.toLocalDate().toEpochDay()));
+        return room == null || !room.isBooked(minuteOfDay(time));
+    }
+
+    /**
+     * Check whether the patient has no other appointment within the minimum spacing of the given time.
+     */
+    public boolean isPatientAvailable(String patientName, LocalDateTime time) {
+        DaySlots patient = patientDays.get(new PatientDay(patientName, time.toLocalDate().toEpochDay()));
+        int minute = minuteOfDay(time);
+        return patient == null || !patient.anyBooked(minute - MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS + 1,
+                minute + MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS - 1);
+    }
+
+    public int doctorAppointments(Long doctorId, LocalDate date) {
+        DaySlots doctor = doctorDays.get(key(doctorId, date.toEpochDay()));
+        return doctor == null ? 0 : doctor.count();
+    }
+
+    /**
+     * Record a booking. Bookings before the horizon are ignored since they are never checked against the index.
+     */
+    public void add(Long doctorId, Long consultingRoomId, String patientName, LocalDateTime time) {
+        if (covers(time)) {
+            index(doctorId, consultingRoomId, patientName, time);
+        }
+    }
+
+    public void remove(Long doctorId, Long consultingRoomId, String patientName, LocalDateTime time) {
+        long day = time.toLocalDate().toEpochDay();
+        int minute = minuteOfDay(time);
+
+        release(doctorDays, key(doctorId, day), minute);
+        release(roomDays, key(consultingRoomId, day), minute);
+        release(patientDays, new PatientDay(patientName, day), minute);
+    }
+
+    /**
+     * Replace the content of the index with the given booked slots, all of them on or after the horizon.
+     */
+    public void rebuild(LocalDate horizon, Stream<? extends BookedSlot> slots) {
+        this.horizon = LocalDate.MAX;
+        doctorDays.clear();
+        roomDays.clear();
+        patientDays.clear();
+
+        slots.forEach(slot -> index(slot.getDoctorId(), slot.getConsultingRoomId(), slot.getPatientName(),
+                slot.getConsultationTime()));
+        this.horizon = horizon;
+    }
+
+    /**
+     * Move the horizon forward to a day, forgetting the days before it. A horizon that is already past the day,
+     * or an index not built yet, is left as it is.
+     */
+    public void advanceHorizon(LocalDate day) {
+        if (!horizon.isBefore(day)) {
+            return;
+        }
+        // Moved first, so that the days being dropped are no longer read
+        horizon = day;
+        long epochDay = day.toEpochDay();
+        doctorDays.keySet().removeIf(key -> epochDay(key) < epochDay);
+        roomDays.keySet().removeIf(key -> epochDay(key) < epochDay);
+        patientDays.keySet().removeIf(patientDay -> patientDay.epochDay() < epochDay);
+    }
+
+    int size() {
+        return doctorDays.size() + roomDays.size() + patientDays.size();
+    }
+
+    private void index(Long doctorId, Long consultingRoomId, String patientName, LocalDateTime time) {
+        long day = time.toLocalDate().toEpochDay();
+        int minute = minuteOfDay(time);
+
+        book(doctorDays, key(doctorId, day), minute);
+        book(roomDays, key(consultingRoomId, day), minute);
+        book(patientDays, new PatientDay(patientName, day), minute);
+    }
+
+    private static <K> void book(Map<K, DaySlots> days, K key, int minute) {
+        days.compute(key, (k, slots) -> {
+            DaySlots booked = slots == null ? new DaySlots() : slots;
+            booked.book(minute);
+            return booked;
+        });
+    }
+
+    private static <K> void release(Map<K, DaySlots> days, K key, int minute) {
+        days.computeIfPresent(key, (k, slots) -> {
+            slots.release(minute);
+            return slots.isEmpty() ? null : slots;
+        });
+    }
+
+    private static long key(Long id, long epochDay) {
+        return (id << 21) | (epochDay & 0x1F_FFFF);
+    }
+
+    private static long epochDay(long key) {
+        return key & 0x1F_FFFF;
+    }
+
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private record PatientDay(String patientName, long epochDay) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.olvera.hospital.scheduling;
+
+import com.olvera.hospital.journal.BookingJournal;
+import com.olvera.hospital.journal.JournalSlot;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.repository.BookedSlot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Builds the {@link OccupancyIndex} once every singleton is ready, before the web server starts accepting bookings.
+ * <p>
+ * With the {@link BookingJournal} enabled, the index is replayed from the journal when it missed no change, was
+ * closed when the application last stopped and books as many slots as the database holds; otherwise it is read from the database and the journal restarted from what
+ * was read.
+ * <p>
+ * After midnight, the horizon of the index moves to the new day, and the days before it are dropped.
+ */
+@Component
+@Slf4j
+public class OccupancyIndexLoader implements SmartInitializingSingleton {
+
+    private final OccupancyIndex occupancyIndex;
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final ObjectProvider<BookingJournal> bookingJournal;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public OccupancyIndexLoader(OccupancyIndex occupancyIndex, AppointmentRepository appointmentRepository,
+                                ObjectProvider<BookingJournal> bookingJournal,
+                                PlatformTransactionManager transactionManager) {
+        this.occupancyIndex = occupancyIndex;
+        this.appointmentRepository = appointmentRepository;
+        this.bookingJournal = bookingJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDate horizon = LocalDate.now();
+        long started = System.nanoTime();
+        BookingJournal journal = bookingJournal.getIfAvailable();
+
+        if (journal == null) {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<BookedSlot> slots = appointmentRepository.streamBookedSlotsFrom(horizon.atStartOfDay())) {
+                    occupancyIndex.rebuild(horizon, slots);
+                }
+            });
+        } else {
+            Optional<List<JournalSlot>> journaled = journal.bookedSlotsFrom(horizon)
+                    .filter(slots -> slots.size() == appointmentRepository.countActiveFrom(horizon.atStartOfDay()));
+            if (journaled.isPresent()) {
+                occupancyIndex.rebuild(horizon, journaled.get().stream());
+            } else {
+                log.warn("Booking journal does not match the database, rebuilding it from the database");
+                List<BookedSlot> slots = transactionTemplate.execute(status -> {
+                    try (Stream<BookedSlot> stream = appointmentRepository.streamBookedSlotsFrom(horizon.atStartOfDay())) {
+                        return stream.toList();
+                    }
+                });
+                occupancyIndex.rebuild(horizon, slots.stream());
+                journal.rebase(slots);
+            }
+        }
+
+        log.info("Occupancy index built from {} in {} ms", horizon, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void advanceHorizon() {
+        occupancyIndex.advanceHorizon(LocalDate.now());
+    }
+}
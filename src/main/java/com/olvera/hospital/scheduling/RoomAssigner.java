@@ -0,0 +1,100 @@
+package com.olvera.hospital.scheduling;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns consulting rooms to appointments planned without one, in a single pass in time order.
+ * <p>
+ * Every appointment holds its room for a slot, so rooms are assigned as in interval partitioning: an appointment
+ * gets a room with no other appointment within a slot of its time. Appointments on the consultation grid all
+ * start and end together, so every room free at their time is as good as any other and the pass assigns as many
+ * of them as there are free rooms. Among the free rooms, an appointment gets the room its doctor was last given
+ * that day, so doctors do not move between consultations; failing that, a room already in use that day, so the
+ * plan keeps rooms wholly free for appointments off the grid; and only then a room nobody uses yet.
+ * <p>
+ * Not thread-safe: an assigner plans one batch.
+ */
+public final class RoomAssigner {
+
+    private final List<Long> consultingRoomIds;
+
+    private final int slotMinutes;
+
+    private final Map<RoomDay, DaySlots> roomDays = new HashMap<>();
+
+    private final Map<DoctorDay, Long> doctorRooms = new HashMap<>();
+
+    private final Map<Long, Set<Long>> roomsInUse = new HashMap<>();
+
+    /**
+     * @param consultingRoomIds the rooms to assign, in order of preference
+     * @param slotMinutes       how long an appointment holds its room
+     */
+    public RoomAssigner(List<Long> consultingRoomIds, int slotMinutes) {
+        this.consultingRoomIds = consultingRoomIds;
+        this.slotMinutes = slotMinutes;
+    }
+
+    /**
+     * Record an appointment already booked, so that its room is not assigned within a slot of it.
+     */
+    public void occupy(Long doctorId, Long consultingRoomId, LocalDateTime time) {
+        long day = time.toLocalDate().toEpochDay();
+        roomDays.computeIfAbsent(new RoomDay(consultingRoomId, day), key -> new DaySlots()).book(minuteOfDay(time));
+        doctorRooms.put(new DoctorDay(doctorId, day), consultingRoomId);
+        roomsInUse.computeIfAbsent(day, key -> new LinkedHashSet<>()).add(consultingRoomId);
+    }
+
+    /**
+     * Assign a room to an appointment and occupy it. Appointments must be assigned in time order for doctors to
+     * keep their room.
+     *
+     * @return the room, or {@code null} if every room is taken within a slot of the time
+     */
+    public Long assign(Long doctorId, LocalDateTime time) {
+        long day = time.toLocalDate().toEpochDay();
+        int minute = minuteOfDay(time);
+
+        Long consultingRoomId = doctorRooms.get(new DoctorDay(doctorId, day));
+        if (consultingRoomId == null || !isFree(consultingRoomId, day, minute)) {
+            consultingRoomId = firstFree(roomsInUse.getOrDefault(day, Set.of()), day, minute);
+        }
+        if (consultingRoomId == null) {
+            consultingRoomId = firstFree(consultingRoomIds, day, minute);
+        }
+
+        if (consultingRoomId != null) {
+            occupy(doctorId, consultingRoomId, time);
+        }
+        return consultingRoomId;
+    }
+
+    private Long firstFree(Iterable<Long> candidates, long day, int minute) {
+        for (Long consultingRoomId : candidates) {
+            if (isFree(consultingRoomId, day, minute)) {
+                return consultingRoomId;
+            }
+        }
+        return null;
+    }
+
+    private boolean isFree(Long consultingRoomId, long day, int minute) {
+        DaySlots room = roomDays.get(new RoomDay(consultingRoomId, day));
+        return room == null || !room.anyBooked(minute - slotMinutes + 1, minute + slotMinutes - 1);
+    }
+
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private record RoomDay(Long consultingRoomId, long epochDay) {
+    }
+
+    private record DoctorDay(Long doctorId, long epochDay) {
+    }
+}
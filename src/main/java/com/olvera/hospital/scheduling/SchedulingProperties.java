@@ -0,0 +1,20 @@
+package com.olvera.hospital.scheduling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.LocalTime;
+
+/**
+ * Consultation grid used when searching for free slots.
+ *
+ * @param openingTime time of the first consultation of the day
+ * @param closingTime time after which no consultation starts
+ * @param slotMinutes length of a consultation slot
+ */
+@ConfigurationProperties(prefix = "hospital.scheduling")
+public record SchedulingProperties(
+        @DefaultValue("08:00") LocalTime openingTime,
+        @DefaultValue("18:00") LocalTime closingTime,
+        @DefaultValue("30") int slotMinutes) {
+}
@@ -0,0 +1,89 @@
+package com.olvera.hospital.scheduling;
+
+import com.olvera.hospital.dto.AvailableSlotDto;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Walks the consultation grid in time order and reports the earliest slots where a doctor and a room are free
+ * according to the {@link OccupancyIndex}, without querying the database. A room is suggested to one doctor per slot
+ * time at most, so the slots of different doctors can all be booked.
+ */
+@Component
+@AllArgsConstructor
+public class SlotFinder {
+
+    private OccupancyIndex occupancyIndex;
+
+    private SchedulingProperties schedulingProperties;
+
+    /**
+     * Find the earliest free slots, at most one per slot time and doctor.
+     *
+     * @param doctorIds         the doctors to consider
+     * @param consultingRoomIds the rooms to consider, in order of preference
+     * @param patientName       the patient to keep the spacing rule for, or null
+     * @param from              the earliest consultation time, inclusive
+     * @param to                the latest consultation time, exclusive
+     * @param limit             the maximum number of slots to return
+     * @return the free slots, earliest first
+     */
+    public List<AvailableSlotDto> findAvailableSlots(List<Long> doctorIds, List<Long> consultingRoomIds, String patientName,
+                                                     LocalDateTime from, LocalDateTime to, int limit) {
+        List<AvailableSlotDto> slots = new ArrayList<>();
+        if (doctorIds.isEmpty() || consultingRoomIds.isEmpty() || !occupancyIndex.covers(from)) {
+            return slots;
+        }
+
+        LocalTime openingTime = schedulingProperties.openingTime();
+        LocalTime closingTime = schedulingProperties.closingTime();
+        int slotMinutes = schedulingProperties.slotMinutes();
+
+        for (LocalDate day = from.toLocalDate(); day.atTime(openingTime).isBefore(to); day = day.plusDays(1)) {
+            for (LocalDateTime time = day.atTime(openingTime);
+                 time.toLocalTime().isBefore(closingTime) && time.toLocalDate().equals(day) && time.isBefore(to);
+                 time = time.plusMinutes(slotMinutes)) {
+
+                if (time.isBefore(from) || patientName != null && !occupancyIndex.isPatientAvailable(patientName, time)) {
+                    continue;
+                }
+
+                Set<Long> suggestedRooms = new HashSet<>();
+                for (Long doctorId : doctorIds) {
+                    if (!occupancyIndex.isDoctorAvailable(doctorId, time)) {
+                        continue;
+                    }
+
+                    Long consultingRoomId = firstFreeRoom(consultingRoomIds, suggestedRooms, time);
+                    if (consultingRoomId == null) {
+                        break;
+                    }
+
+                    suggestedRooms.add(consultingRoomId);
+                    slots.add(new AvailableSlotDto(doctorId, consultingRoomId, time));
+                    if (slots.size() == limit) {
+                        return slots;
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    private Long firstFreeRoom(List<Long> consultingRoomIds, Set<Long> suggestedRooms, LocalDateTime time) {
+        for (Long consultingRoomId : consultingRoomIds) {
+            if (!suggestedRooms.contains(consultingRoomId) && occupancyIndex.isRoomFree(consultingRoomId, time)) {
+                return consultingRoomId;
+            }
+        }
+        return null;
+    }
+}
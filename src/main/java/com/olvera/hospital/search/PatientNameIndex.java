@@ -0,0 +1,318 @@
+package com.olvera.hospital.search;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.PatientMatchDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.event.AppointmentsImportedEvent;
+import com.olvera.hospital.repository.AppointmentPatient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the patient names of the appointments that are not cancelled, searched by the prefixes of
+ * their words, so that "garc" finds "María García López".
+ * <p>
+ * Names are normalized to lower case, without accents and with words separated by single spaces. Each word start
+ * of a normalized name is a key of a sorted set, holding the rest of the name after it, so that the names with a
+ * word starting with a prefix are a range of the set. A query of several words is looked up as typed first, then by
+ * its longest word, keeping the names found when every word of the query starts one of theirs.
+ * <p>
+ * The index is kept up to date by the appointment change events, after their transaction commits. Its size is
+ * bounded by {@link PatientSearchProperties#maxPatients()} distinct names, of at most {@link #MAX_WORDS} keys
+ * of at most {@link #MAX_KEY_LENGTH} characters each, and of at most
+ * {@link PatientSearchProperties#maxAppointmentsPerPatient()} appointment IDs each.
+ */
+@Component
+@Slf4j
+public class PatientNameIndex {
+
+    public static final String NAMES_GAUGE = "hospital.patient.index.names";
+
+    static final int MAX_WORDS = 8;
+
+    static final int MAX_KEY_LENGTH = 48;
+
+    /**
+     * Separates a key from the name it belongs to; it sorts before any character of a normalized name.
+     */
+    private static final char SEPARATOR = '\0';
+
+    private final int maxPatients;
+
+    private final int maxAppointmentsPerPatient;
+
+    private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+
+    private final ConcurrentHashMap<String, AppointmentIds> appointmentIds = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean full = new AtomicBoolean();
+
+    @Autowired
+    public PatientNameIndex(PatientSearchProperties properties, MeterRegistry meterRegistry) {
+        this(properties.maxPatients(), properties.maxAppointmentsPerPatient());
+        Gauge.builder(NAMES_GAUGE, appointmentIds, ConcurrentHashMap::size)
+                .description("Distinct patient names in the patient search index")
+                .register(meterRegistry);
+    }
+
+    PatientNameIndex(int maxPatients, int maxAppointmentsPerPatient) {
+        this.maxPatients = maxPatients;
+        this.maxAppointmentsPerPatient = maxAppointmentsPerPatient;
+    }
+
+    /**
+     * Record an appointment of a patient. Recording it again has no effect, nor does recording one more than a
+     * patient can hold.
+     */
+    public void add(Long appointmentId, String patientName) {
+        appointmentIds.compute(patientName, (name, ids) -> {
+            if (ids == null) {
+                if (appointmentIds.size() >= maxPatients) {
+                    if (full.compareAndSet(false, true)) {
+                        log.warn("Patient name index is full at {} names; new patients are not searchable", maxPatients);
+                    }
+                    return null;
+                }
+                keys.addAll(keys(name));
+                ids = new AppointmentIds();
+            }
+            ids.add(appointmentId, maxAppointmentsPerPatient);
+            return ids;
+        });
+    }
+
+    /**
+     * Forget an appointment of a patient, and the patient with their last appointment.
+     */
+    public void remove(Long appointmentId, String patientName) {
+        appointmentIds.computeIfPresent(patientName, (name, ids) -> {
+            if (!ids.remove(appointmentId)) {
+                return ids;
+            }
+            if (ids.isEmpty()) {
+                keys.removeAll(keys(name));
+                full.set(false);
+                return null;
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Find the patients with a word of their name starting with every word of the query: first those whose name
+     * continues the query as typed, then those with its words in any order, each in the order of the matched words.
+     *
+     * @param query the start of one or more words of the name, in any case and with or without accents
+     * @param limit the maximum number of patients to return
+     * @return the matching patients with the IDs of their appointments
+     */
+    public List<PatientMatchDto> search(String query, int limit) {
+        String normalized = normalize(query);
+        String[] words = words(normalized);
+        if (words.length == 0) {
+            return List.of();
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<PatientMatchDto> matches = new ArrayList<>();
+        collect(normalized, normalized.length() > MAX_KEY_LENGTH ? words : null, limit, seen, matches);
+
+        if (words.length > 1 && matches.size() < limit) {
+            String longest = words[0];
+            for (String word : words) {
+                longest = word.length() > longest.length() ? word : longest;
+            }
+            collect(longest, words, limit, seen, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Add the patients with a key starting with a probe, and with every word of the filter starting a word of
+     * their name when there is one, until there are enough.
+     */
+    private void collect(String probe, String[] filter, int limit, Set<String> seen, List<PatientMatchDto> matches) {
+        probe = truncate(probe);
+        for (String key : keys.subSet(probe, true, probe + Character.MAX_VALUE, false)) {
+            if (matches.size() >= limit) {
+                return;
+            }
+            String name = key.substring(key.indexOf(SEPARATOR) + 1);
+            if (seen.contains(name) || (filter != null && !startsEveryWord(filter, words(normalize(name))))) {
+                continue;
+            }
+            AppointmentIds ids = appointmentIds.get(name);
+            if (ids != null) {
+                seen.add(name);
+                matches.add(new PatientMatchDto(name, ids.sorted()));
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from every appointment that is not cancelled.
+     */
+    public void rebuild(Stream<? extends AppointmentPatient> appointments) {
+        keys.clear();
+        appointmentIds.clear();
+        full.set(false);
+        appointments.forEach(appointment -> add(appointment.getId(), appointment.getPatientName()));
+    }
+
+    public int size() {
+        return appointmentIds.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentDto previous = event.previous();
+        AppointmentDto current = event.current();
+        if (previous != null && current != null && Objects.equals(previous.getPatientName(), current.getPatientName())) {
+            return;
+        }
+        if (previous != null) {
+            remove(previous.getId(), previous.getPatientName());
+        }
+        if (current != null) {
+            add(current.getId(), current.getPatientName());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentsImported(AppointmentsImportedEvent event) {
+        event.patientNames().forEach(this::add);
+    }
+
+    /**
+     * The lower-case words of a name, without accents or punctuation, separated by single spaces.
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separated = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                separated = true;
+                continue;
+            }
+            if (separated && !normalized.isEmpty()) {
+                normalized.append(' ');
+            }
+            separated = false;
+            normalized.append(Character.toLowerCase(c));
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * The keys of a name: the normalized name from the start of each of its first words, truncated, followed by
+     * the name itself.
+     */
+    private static Set<String> keys(String name) {
+        String normalized = normalize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        int words = 0;
+        for (int start = 0; start < normalized.length() && words < MAX_WORDS; words++) {
+            keys.add(truncate(normalized.substring(start)) + SEPARATOR + name);
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    private static boolean startsEveryWord(String[] prefixes, String[] words) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] words(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * The appointment IDs of one patient, in a buffer that doubles when full. Changed only inside the map's
+     * {@code compute}, and read by searches, so every access is synchronized.
+     */
+    private static final class AppointmentIds {
+
+        private long[] ids = new long[1];
+
+        private int size;
+
+        synchronized void add(long id, int max) {
+            if (indexOf(id) >= 0 || size == max) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(ids.length * 2, max));
+            }
+            ids[size++] = id;
+        }
+
+        synchronized boolean remove(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            // Order does not matter: the last ID fills the gap
+            ids[index] = ids[--size];
+            return true;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+
+        synchronized List<Long> sorted() {
+            return Arrays.stream(ids, 0, size).sorted().boxed().toList();
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
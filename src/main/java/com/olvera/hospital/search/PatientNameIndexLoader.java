@@ -0,0 +1,46 @@
+package com.olvera.hospital.search;
+
+import com.olvera.hospital.repository.AppointmentPatient;
+import com.olvera.hospital.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Builds the {@link PatientNameIndex} from the database once every singleton is ready, before the web server starts
+ * accepting searches.
+ */
+@Component
+@Slf4j
+public class PatientNameIndexLoader implements SmartInitializingSingleton {
+
+    private final PatientNameIndex patientNameIndex;
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PatientNameIndexLoader(PatientNameIndex patientNameIndex, AppointmentRepository appointmentRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.patientNameIndex = patientNameIndex;
+        this.appointmentRepository = appointmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<AppointmentPatient> patients = appointmentRepository.streamActivePatients()) {
+                patientNameIndex.rebuild(patients);
+            }
+        });
+        log.info("Patient name index built with {} names in {} ms", patientNameIndex.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,18 @@
+package com.olvera.hospital.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Patient name search.
+ *
+ * @param maxPatients               how many distinct patient names the index holds at most; names past it are not
+ *                                  searchable until others leave the index
+ * @param maxAppointmentsPerPatient how many appointment IDs the index holds at most for one name; a match lists
+ *                                  only those
+ */
+@ConfigurationProperties(prefix = "hospital.patient-search")
+public record PatientSearchProperties(
+        @DefaultValue("100000") int maxPatients,
+        @DefaultValue("1000") int maxAppointmentsPerPatient) {
+}
@@ -0,0 +1,16 @@
+package com.olvera.hospital.service;
+
+import com.olvera.hospital.dto.AppointmentHistoryDto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+
+public interface IAppointmentArchiveService {
+
+    int archivePastAppointments();
+
+    Slice<AppointmentHistoryDto> findHistory(Long doctorId, String patientName, LocalDate from, LocalDate to,
+                                             Pageable pageable);
+
+}
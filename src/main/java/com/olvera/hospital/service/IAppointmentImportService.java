@@ -0,0 +1,11 @@
+package com.olvera.hospital.service;
+
+import com.olvera.hospital.dto.AppointmentImportResultDto;
+
+import java.io.InputStream;
+
+public interface IAppointmentImportService {
+
+    AppointmentImportResultDto importAppointments(InputStream csv, boolean historical);
+
+}
@@ -0,0 +1,12 @@
+package com.olvera.hospital.service;
+
+import com.olvera.hospital.dto.AppointmentPlanRequestDto;
+import com.olvera.hospital.dto.AppointmentPlanResultDto;
+
+import java.util.List;
+
+public interface IAppointmentPlanningService {
+
+    List<AppointmentPlanResultDto> planConsultingRooms(List<AppointmentPlanRequestDto> requests);
+
+}
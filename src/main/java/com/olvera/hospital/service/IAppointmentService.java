@@ -1,16 +1,26 @@
 package com.olvera.hospital.service;
 
 import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.BulkAppointmentResultDto;
 import com.olvera.hospital.entity.Appointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IAppointmentService {
 
     public Appointment createAppointment(AppointmentDto appointmentDto);
 
-    List<AppointmentDto> filterAppointments(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end);
+    List<BulkAppointmentResultDto> createAppointments(List<AppointmentDto> appointmentDtos);
+
+    Slice<AppointmentDto> filterAppointments(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end,
+                                             Pageable pageable);
+
+    void exportAppointments(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end,
+                            Consumer<List<AppointmentDto>> batchConsumer);
 
     public boolean cancelAppointment(Long appointmentId);
 
@@ -0,0 +1,13 @@
+package com.olvera.hospital.service;
+
+import com.olvera.hospital.dto.AvailableSlotDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IAvailabilityService {
+
+    List<AvailableSlotDto> findAvailableSlots(String specialty, Long consultingRoomId, String patientName,
+                                              LocalDate from, LocalDate to, int limit);
+
+}
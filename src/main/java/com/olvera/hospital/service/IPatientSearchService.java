@@ -0,0 +1,11 @@
+package com.olvera.hospital.service;
+
+import com.olvera.hospital.dto.PatientMatchDto;
+
+import java.util.List;
+
+public interface IPatientSearchService {
+
+    List<PatientMatchDto> searchPatients(String name, int limit);
+
+}
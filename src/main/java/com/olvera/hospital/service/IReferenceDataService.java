@@ -0,0 +1,28 @@
+package com.olvera.hospital.service;
+
+import com.olvera.hospital.dto.CacheStatisticsDto;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.entity.Doctor;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IReferenceDataService {
+
+    Optional<Doctor> findDoctor(Long doctorId);
+
+    Optional<ConsultingRoom> findConsultingRoom(Long consultingRoomId);
+
+    List<Doctor> findDoctorsBySpecialty(String specialty);
+
+    List<ConsultingRoom> findAllConsultingRooms();
+
+    void evictDoctor(Long doctorId);
+
+    void evictConsultingRoom(Long consultingRoomId);
+
+    void evictAll();
+
+    List<CacheStatisticsDto> getCacheStatistics();
+
+}
@@ -0,0 +1,101 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.cache.ScheduleVersions;
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.AppointmentHistoryDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.repository.AppointmentSpecifications;
+import com.olvera.hospital.repository.ArchivedAppointmentRepository;
+import com.olvera.hospital.scheduling.ArchiveProperties;
+import com.olvera.hospital.service.IAppointmentArchiveService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+@AllArgsConstructor
+public class AppointmentArchiveServiceImpl implements IAppointmentArchiveService {
+
+    private AppointmentRepository appointmentRepository;
+
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ArchiveProperties archiveProperties;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private ScheduleVersions scheduleVersions;
+
+    /**
+     * Move the completed and cancelled appointments older than the retention period to the archive, one batch
+     * per transaction so that no transaction holds more than a batch of row locks. Pending and future
+     * appointments are never moved, so the job does not need the booking locks. The schedule versions of the past
+     * days are forgotten afterwards.
+     *
+     * @return the number of appointments archived
+     */
+    @Override
+    @Scheduled(initialDelayString = "${hospital.archive.interval:PT1H}", fixedDelayString = "${hospital.archive.interval:PT1H}")
+    public int archivePastAppointments() {
+        LocalDateTime cutoff = LocalDate.now().minus(archiveProperties.retention()).atStartOfDay();
+        Pageable batch = PageRequest.of(0, archiveProperties.batchSize());
+
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff, batch));
+            archived += moved;
+        } while (moved == batch.getPageSize());
+        scheduleVersions.forgetBefore(LocalDate.now());
+
+        if (archived > 0) {
+            log.info("Archived {} appointments that took place before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff, Pageable batch) {
+        List<AppointmentDto> appointments = appointmentRepository
+                .findDtoSlice(AppointmentSpecifications.closedBefore(cutoff), batch).getContent();
+        if (appointments.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = appointments.stream().map(AppointmentDto::getId).toList();
+        archivedAppointmentRepository.copyFromAppointments(ids, LocalDateTime.now());
+        appointmentRepository.deleteAllByIdInBatch(ids);
+
+        // Delivered once the batch commits
+        appointments.forEach(appointment -> eventPublisher.publishEvent(AppointmentChangedEvent.archived(appointment)));
+        return appointments.size();
+    }
+
+    @Override
+    public Slice<AppointmentHistoryDto> findHistory(Long doctorId, String patientName, LocalDate from, LocalDate to,
+                                                    Pageable pageable) {
+        if ((doctorId == null) == (patientName == null)) {
+            throw new IllegalArgumentException("Either a doctor ID or a patient name is required.");
+        }
+
+        LocalDateTime start = (from == null ? LocalDate.EPOCH : from).atStartOfDay();
+        LocalDateTime end = (to == null ? LocalDate.now() : to).plusDays(1).atStartOfDay();
+
+        return doctorId != null
+                ? archivedAppointmentRepository.findHistoryByDoctorId(doctorId, start, end, pageable)
+                : archivedAppointmentRepository.findHistoryByPatientName(patientName, start, end, pageable);
+    }
+}
@@ -0,0 +1,264 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.AppointmentImportResultDto;
+import com.olvera.hospital.dto.BulkAppointmentResultDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.entity.Doctor;
+import com.olvera.hospital.event.AppointmentsImportedEvent;
+import com.olvera.hospital.importer.AppointmentCsvFormat;
+import com.olvera.hospital.importer.CsvReader;
+import com.olvera.hospital.importer.ImportProperties;
+import com.olvera.hospital.importer.ImportedAppointment;
+import com.olvera.hospital.repository.ConsultingRoomRepository;
+import com.olvera.hospital.repository.DoctorRepository;
+import com.olvera.hospital.service.IAppointmentImportService;
+import com.olvera.hospital.service.IAppointmentService;
+import com.olvera.hospital.util.AppointmentStatus;
+import com.olvera.hospital.util.BulkAppointmentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Slf4j
+@AllArgsConstructor
+public class AppointmentImportServiceImpl implements IAppointmentImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // The largest bulk request the booking validations accept
+    private static final int VALIDATED_CHUNK_SIZE = 500;
+
+    private IAppointmentService appointmentService;
+
+    private DoctorRepository doctorRepository;
+
+    private ConsultingRoomRepository consultingRoomRepository;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ImportProperties importProperties;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Import the appointments of a CSV file, reading it one row at a time and writing it one chunk at a time,
+     * so memory stays constant however large the file is. Rows that cannot be parsed or resolved are reported
+     * and skipped. A record the CSV reader cannot make out, such as one with a quote left unclosed, ends the import:
+     * the rows before it are imported and it is reported, but the rows after it cannot be told apart.
+     * <p>
+     * Historical rows skip the booking validations: they must be past appointments, which hold no slot anyone can
+     * still book, and are inserted as they are, {@code COMPLETED} unless the row says otherwise. Without the flag,
+     * rows are pending bookings and go through the same validations as a bulk request.
+     *
+     * @param csv        the CSV file, see {@link AppointmentCsvFormat} for its columns
+     * @param historical whether the rows are past appointments to insert without the booking validations
+     * @return how many rows were imported and why the others were not
+     */
+    @Override
+    public AppointmentImportResultDto importAppointments(InputStream csv, boolean historical) {
+        long started = System.nanoTime();
+        ImportReport report = new ImportReport();
+        int chunkSize = historical ? importProperties.chunkSize() : VALIDATED_CHUNK_SIZE;
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV file is empty.");
+            }
+            // Built once: resolving a row is then two map lookups
+            AppointmentCsvFormat format = new AppointmentCsvFormat(header, doctorRepository.findAll(),
+                    consultingRoomRepository.findAll());
+            LocalDateTime now = LocalDateTime.now();
+
+            List<ImportedAppointment> chunk = new ArrayList<>(chunkSize);
+            List<String> fields;
+            while ((fields = nextRow(reader, report)) != null) {
+                try {
+                    chunk.add(validate(format.parse(reader.lineNumber(), fields), historical, now));
+                } catch (IllegalArgumentException e) {
+                    report.reject(reader.lineNumber(), e.getMessage());
+                }
+
+                if (chunk.size() == chunkSize) {
+                    write(chunk, historical, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write(chunk, historical, report);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Imported {} appointments, rejected {}, in {} ms", report.imported, report.rejected,
+                (System.nanoTime() - started) / 1_000_000);
+        return report.toDto();
+    }
+
+    /**
+     * The next row of the file, or {@code null} at its end or at a record that cannot be read, which is rejected.
+     */
+    private static List<String> nextRow(CsvReader reader, ImportReport report) throws IOException {
+        try {
+            return reader.next();
+        } catch (IllegalArgumentException e) {
+            report.reject(reader.lineNumber(), e.getMessage() + " The rest of the file was not imported.");
+            return null;
+        }
+    }
+
+    private static ImportedAppointment validate(ImportedAppointment row, boolean historical, LocalDateTime now) {
+        if (historical) {
+            if (!row.appointment().getConsultationTime().isBefore(now)) {
+                throw new IllegalArgumentException("Historical appointments must be in the past.");
+            }
+            return row.status() == null
+                    ? new ImportedAppointment(row.line(), row.appointment(), AppointmentStatus.COMPLETED)
+                    : row;
+        }
+        if (row.status() != null && row.status() != AppointmentStatus.PENDING) {
+            throw new IllegalArgumentException("Only pending appointments can be booked; import past ones as historical.");
+        }
+        return row;
+    }
+
+    private void write(List<ImportedAppointment> chunk, boolean historical, ImportReport report) {
+        if (historical) {
+            insertHistorical(chunk, report);
+        } else {
+            book(chunk, report);
+        }
+    }
+
+    /**
+     * Insert a chunk in one transaction, in JDBC batches, clearing the persistence context after each batch so it
+     * never holds more than a batch of entities. The doctor and consulting room are set by reference: they are
+     * never loaded.
+     * <p>
+     * A chunk that breaks a unique constraint is split in halves, each inserted on its own, down to the single rows
+     * that break it; only those are rejected.
+     */
+    private void insertHistorical(List<ImportedAppointment> chunk, ImportReport report) {
+        Set<LocalDate> days = new HashSet<>();
+        Map<Long, String> patientNames = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(importProperties.jdbcBatchSize());
+                for (int i = 0; i < chunk.size(); i++) {
+                    AppointmentDto appointment = chunk.get(i).appointment();
+                    Appointment imported = Appointment.builder()
+                            .doctor(entityManager.getReference(Doctor.class, appointment.getDoctorId()))
+                            .consultingRoom(entityManager.getReference(ConsultingRoom.class,
+                                    appointment.getConsultingRoomId()))
+                            .consultationTime(appointment.getConsultationTime())
+                            .patientName(appointment.getPatientName())
+                            .status(chunk.get(i).status())
+                            .build();
+                    entityManager.persist(imported);
+                    days.add(appointment.getConsultationTime().toLocalDate());
+                    if (imported.getStatus() != AppointmentStatus.CANCELLED) {
+                        patientNames.put(imported.getId(), imported.getPatientName());
+                    }
+
+                    if ((i + 1) % importProperties.jdbcBatchSize() == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (PersistenceException | DataAccessException e) {
+            if (!(e instanceof ConstraintViolationException || e instanceof DataIntegrityViolationException)) {
+                log.warn("Import of lines {} to {} failed", chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e);
+                report.reject(chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), chunk.size(),
+                        "Not imported: the rows could not be written.");
+                return;
+            }
+            // Most likely a doctor or room booked twice at the same time, by the file or by existing rows: halve the
+            // chunk until the rows that break the constraint are on their own
+            if (chunk.size() == 1) {
+                report.reject(chunk.get(0).line(),
+                        "Not imported: the doctor or consulting room is already booked at this time.");
+            } else {
+                insertHistorical(chunk.subList(0, chunk.size() / 2), report);
+                insertHistorical(chunk.subList(chunk.size() / 2, chunk.size()), report);
+            }
+            return;
+        }
+
+        report.imported += chunk.size();
+        eventPublisher.publishEvent(new AppointmentsImportedEvent(days, patientNames));
+    }
+
+    private void book(List<ImportedAppointment> chunk, ImportReport report) {
+        List<BulkAppointmentResultDto> results =
+                appointmentService.createAppointments(chunk.stream().map(ImportedAppointment::appointment).toList());
+
+        for (BulkAppointmentResultDto result : results) {
+            if (result.getStatus() == BulkAppointmentStatus.CREATED) {
+                report.imported++;
+            } else {
+                report.reject(chunk.get(result.getIndex()).line(), result.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Counts of an import, and the reasons of its first rejections.
+     */
+    private static final class ImportReport {
+
+        private long imported;
+
+        private long rejected;
+
+        private final List<String> errors = new ArrayList<>();
+
+        void reject(int line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + line + ": " + message);
+            }
+        }
+
+        void reject(int firstLine, int lastLine, int rows, String message) {
+            rejected += rows;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("lines " + firstLine + " to " + lastLine + ": " + message);
+            }
+        }
+
+        AppointmentImportResultDto toDto() {
+            return new AppointmentImportResultDto(imported, rejected, errors);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentPlanRequestDto;
+import com.olvera.hospital.dto.AppointmentPlanResultDto;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.exception.ResourceNotFoundException;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.repository.BookedSlot;
+import com.olvera.hospital.scheduling.BookingConflict;
+import com.olvera.hospital.scheduling.OccupancyIndex;
+import com.olvera.hospital.scheduling.RoomAssigner;
+import com.olvera.hospital.scheduling.SchedulingProperties;
+import com.olvera.hospital.service.IAppointmentPlanningService;
+import com.olvera.hospital.service.IReferenceDataService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.olvera.hospital.scheduling.BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY;
+
+@Service
+@Slf4j
+@AllArgsConstructor
+public class AppointmentPlanningServiceImpl implements IAppointmentPlanningService {
+
+    private static final int MAX_PLAN_SIZE = 10_000;
+
+    private static final int MAX_PLAN_DAYS = 31;
+
+    private static final String NO_ROOM_FREE = "No consulting room is free at this time.";
+
+    private AppointmentRepository appointmentRepository;
+
+    private IReferenceDataService referenceDataService;
+
+    private SchedulingProperties schedulingProperties;
+
+    /**
+     * Plan a consulting room for each appointment, around the appointments already booked, without booking
+     * anything. Appointments that break a booking rule, against the bookings or against the other appointments
+     * of the plan, are rejected with the same message a booking would get; the others get a room unless none is
+     * free at their time.
+     *
+     * @param requests the appointments to plan, without rooms
+     * @return the room of every appointment, or why it has none, in the order of the request
+     */
+    @Override
+    public List<AppointmentPlanResultDto> planConsultingRooms(List<AppointmentPlanRequestDto> requests) {
+        if (requests.size() > MAX_PLAN_SIZE) {
+            throw new IllegalArgumentException("A plan cannot contain more than " + MAX_PLAN_SIZE + " appointments.");
+        }
+        long started = System.nanoTime();
+
+        AppointmentPlanResultDto[] results = new AppointmentPlanResultDto[requests.size()];
+        List<Integer> candidates = new ArrayList<>();
+        LocalDate firstDay = LocalDate.MAX;
+        LocalDate lastDay = LocalDate.MIN;
+        Map<Long, Boolean> doctorsFound = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            AppointmentPlanRequestDto request = requests.get(i);
+            if (request == null || request.getDoctorId() == null || request.getConsultationTime() == null
+                    || request.getPatientName() == null) {
+                results[i] = AppointmentPlanResultDto.rejected(i, request,
+                        "Doctor ID, consultation time and patient name are required.");
+                continue;
+            }
+            if (!doctorsFound.computeIfAbsent(request.getDoctorId(),
+                    doctorId -> referenceDataService.findDoctor(doctorId).isPresent())) {
+                results[i] = AppointmentPlanResultDto.rejected(i, request,
+                        new ResourceNotFoundException("Doctor", "doctorId", request.getDoctorId().toString()).getMessage());
+                continue;
+            }
+
+            candidates.add(i);
+            LocalDate day = request.getConsultationTime().toLocalDate();
+            firstDay = day.isBefore(firstDay) ? day : firstDay;
+            lastDay = day.isAfter(lastDay) ? day : lastDay;
+        }
+        if (candidates.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= MAX_PLAN_DAYS) {
+            throw new IllegalArgumentException("A plan must cover between 1 and " + MAX_PLAN_DAYS + " days.");
+        }
+
+        List<BookedSlot> booked = appointmentRepository.findBookedSlotsBetween(firstDay.atStartOfDay(),
+                lastDay.plusDays(1).atStartOfDay());
+        OccupancyIndex batchIndex = new OccupancyIndex();
+        batchIndex.rebuild(firstDay, booked.stream());
+
+        RoomAssigner roomAssigner = new RoomAssigner(referenceDataService.findAllConsultingRooms().stream()
+                .map(ConsultingRoom::getId)
+                .sorted()
+                .toList(), schedulingProperties.slotMinutes());
+        booked.forEach(slot -> roomAssigner.occupy(slot.getDoctorId(), slot.getConsultingRoomId(),
+                slot.getConsultationTime()));
+
+        // In time order, so that doctors keep their room from one appointment to the next
+        candidates.sort(Comparator.comparing(i -> requests.get(i).getConsultationTime()));
+        int planned = 0;
+
+        for (int i : candidates) {
+            AppointmentPlanRequestDto request = requests.get(i);
+            BookingConflict conflict = checkConflicts(batchIndex, request);
+            if (conflict != BookingConflict.NONE) {
+                results[i] = AppointmentPlanResultDto.rejected(i, request, conflict.getMessage());
+                continue;
+            }
+
+            Long consultingRoomId = roomAssigner.assign(request.getDoctorId(), request.getConsultationTime());
+            if (consultingRoomId == null) {
+                results[i] = AppointmentPlanResultDto.rejected(i, request, NO_ROOM_FREE);
+                continue;
+            }
+
+            batchIndex.add(request.getDoctorId(), consultingRoomId, request.getPatientName(),
+                    request.getConsultationTime());
+            results[i] = AppointmentPlanResultDto.planned(i, request, consultingRoomId);
+            planned++;
+        }
+
+        log.info("Planned rooms for {} of {} appointments in {} ms", planned, results.length,
+                (System.nanoTime() - started) / 1_000_000);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * The booking rules that do not depend on the room, in the order the booking checks them.
+     */
+    private static BookingConflict checkConflicts(OccupancyIndex batchIndex, AppointmentPlanRequestDto request) {
+        if (!batchIndex.isDoctorFree(request.getDoctorId(), request.getConsultationTime())) {
+            return BookingConflict.DOCTOR_BOOKED;
+        }
+        if (!batchIndex.isPatientAvailable(request.getPatientName(), request.getConsultationTime())) {
+            return BookingConflict.PATIENT_TOO_CLOSE;
+        }
+        if (batchIndex.doctorAppointments(request.getDoctorId(), request.getConsultationTime().toLocalDate())
+                >= MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY) {
+            return BookingConflict.DOCTOR_DAILY_LIMIT;
+        }
+        return BookingConflict.NONE;
+    }
+}
@@ -1,26 +1,52 @@
 package com.olvera.hospital.service.impl;
 
 import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.BulkAppointmentResultDto;
 import com.olvera.hospital.entity.Appointment;
 import com.olvera.hospital.entity.ConsultingRoom;
 import com.olvera.hospital.entity.Doctor;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.exception.InvalidSortException;
 import com.olvera.hospital.exception.ResourceAlreadyExistsException;
 import com.olvera.hospital.exception.ResourceNotFoundException;
+import com.olvera.hospital.mapper.AppointmentMapper;
+import com.olvera.hospital.metrics.BookingMetrics;
+import com.olvera.hospital.metrics.BookingStep;
 import com.olvera.hospital.repository.AppointmentRepository;
-import com.olvera.hospital.repository.ConsultingRoomRepository;
-import com.olvera.hospital.repository.DoctorRepository;
+import com.olvera.hospital.repository.AppointmentSpecifications;
+import com.olvera.hospital.repository.BookingRuleCounts;
+import com.olvera.hospital.scheduling.BookingConflict;
+import com.olvera.hospital.scheduling.BookingLocks;
+import com.olvera.hospital.scheduling.OccupancyIndex;
 import com.olvera.hospital.service.IAppointmentService;
+import com.olvera.hospital.service.IReferenceDataService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static com.olvera.hospital.scheduling.BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY;
+import static com.olvera.hospital.scheduling.BookingRules.MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS;
 import static com.olvera.hospital.util.AppointmentStatus.CANCELLED;
 import static com.olvera.hospital.util.AppointmentStatus.PENDING;
 
@@ -29,109 +55,427 @@ import static com.olvera.hospital.util.AppointmentStatus.PENDING;
 @AllArgsConstructor
 public class AppointmentServiceImpl implements IAppointmentService {
 
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
+    private static final int MAX_BULK_SIZE = 500;
+
+    /**
+     * Appointment fields a page can be sorted by: every other one would either join another table or sort on a
+     * column no index covers.
+     */
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "consultationTime", "patientName");
+
+    private static final String MISSING_FIELDS = "missing_fields";
+
+    private static final String DOCTOR_NOT_FOUND = "doctor_not_found";
+
+    private static final String CONSULTING_ROOM_NOT_FOUND = "consulting_room_not_found";
+
+    private static final String CONCURRENT_BOOKING = "concurrent_booking";
+
+    private static final String CONCURRENT_BOOKING_MESSAGE = "Doctor or consulting room is already booked at this time.";
+
     private AppointmentRepository appointmentRepository;
 
-    private DoctorRepository doctorRepository;
+    private IReferenceDataService referenceDataService;
+
+    private OccupancyIndex occupancyIndex;
+
+    private TransactionTemplate transactionTemplate;
+
+    private BookingLocks bookingLocks;
 
-    private ConsultingRoomRepository consultingRoomRepository;
+    private BookingMetrics bookingMetrics;
+
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public Appointment createAppointment(AppointmentDto appointmentDto) {
+        return bookingLocks.withSlotsLocked(List.of(appointmentDto), () -> book(appointmentDto));
+    }
 
-        LocalDateTime requestedTime = appointmentDto.getConsultationTime();
-        LocalDate date = requestedTime.toLocalDate();
-
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+    private Appointment book(AppointmentDto appointmentDto) {
 
         LocalDateTime time = appointmentDto.getConsultationTime();
 
-        if (appointmentRepository.existsByConsultingRoomIdAndConsultationTime(appointmentDto.getConsultingRoomId(), time)) {
-            throw new ResourceAlreadyExistsException("Consulting room is already occupied at this time.");
+        // The rule check and the insert share one transaction, and are the only two statements of the booking
+        Appointment appointmentSaved = transactionTemplate.execute(status -> {
+            rejectConflict(checkConflicts(appointmentDto));
+
+            Doctor doctor = bookingMetrics.time(BookingStep.DOCTOR_LOOKUP, BookingMetrics.CACHE,
+                    () -> getDoctor(appointmentDto.getDoctorId()));
+
+            ConsultingRoom consultingRoom = bookingMetrics.time(BookingStep.CONSULTING_ROOM_LOOKUP, BookingMetrics.CACHE,
+                    () -> getConsultingRoom(appointmentDto.getConsultingRoomId()));
+
+            Appointment appointment = Appointment.builder()
+                    .doctor(doctor)
+                    .consultingRoom(consultingRoom)
+                    .consultationTime(time)
+                    .patientName(appointmentDto.getPatientName())
+                    .status(PENDING)
+                    .build();
+
+            return bookingMetrics.time(BookingStep.SAVE, BookingMetrics.DATABASE, () -> save(appointment));
+        });
+        occupancyIndex.add(appointmentSaved.getDoctor().getId(), appointmentSaved.getConsultingRoom().getId(),
+                appointmentSaved.getPatientName(), time);
+        eventPublisher.publishEvent(AppointmentChangedEvent.created(AppointmentMapper.toDto(appointmentSaved)));
+        log.info("Appointment created successfully with ID: {}", appointmentSaved.getId());
+
+        return appointmentSaved;
+    }
+
+    @Override
+    public List<BulkAppointmentResultDto> createAppointments(List<AppointmentDto> appointmentDtos) {
+        if (appointmentDtos.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("A bulk request cannot contain more than " + MAX_BULK_SIZE + " appointments.");
         }
 
-        if (appointmentRepository.existsByDoctorIdAndConsultationTime(appointmentDto.getDoctorId(), time)) {
-            throw new ResourceAlreadyExistsException("Doctor is already booked at this time.");
+        BulkAppointmentResultDto[] results = new BulkAppointmentResultDto[appointmentDtos.size()];
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < appointmentDtos.size(); i++) {
+            AppointmentDto dto = appointmentDtos.get(i);
+            if (dto == null || dto.getDoctorId() == null || dto.getConsultingRoomId() == null
+                    || dto.getConsultationTime() == null || dto.getPatientName() == null) {
+                bookingMetrics.rejected(MISSING_FIELDS);
+                results[i] = BulkAppointmentResultDto.rejected(i,
+                        "Doctor ID, consulting room ID, consultation time and patient name are required.");
+            } else {
+                candidates.add(i);
+            }
         }
 
-        List<Appointment> sameDayAppointments = appointmentRepository
-                .findByPatientNameAndConsultationTimeBetween(appointmentDto.getPatientName(), startOfDay, endOfDay);
+        if (!candidates.isEmpty()) {
+            List<AppointmentDto> slots = candidates.stream().map(appointmentDtos::get).toList();
+            bookingLocks.withSlotsLocked(slots, () -> {
+                createCandidates(appointmentDtos, candidates, results);
+                return null;
+            });
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validate the complete appointments of a bulk request against the existing bookings and against each other,
+     * then insert the accepted ones in a single transaction, or one by one when that transaction breaks a unique
+     * constraint.
+     */
+    private void createCandidates(List<AppointmentDto> appointmentDtos, List<Integer> candidates,
+                                  BulkAppointmentResultDto[] results) {
+        Set<Long> doctorIds = new HashSet<>();
+        Set<Long> consultingRoomIds = new HashSet<>();
+        Set<String> patientNames = new HashSet<>();
+        LocalDate firstDay = LocalDate.MAX;
+        LocalDate lastDay = LocalDate.MIN;
+
+        for (int i : candidates) {
+            AppointmentDto dto = appointmentDtos.get(i);
+            doctorIds.add(dto.getDoctorId());
+            consultingRoomIds.add(dto.getConsultingRoomId());
+            patientNames.add(dto.getPatientName());
+
+            LocalDate day = dto.getConsultationTime().toLocalDate();
+            firstDay = day.isBefore(firstDay) ? day : firstDay;
+            lastDay = day.isAfter(lastDay) ? day : lastDay;
+        }
 
-        for (Appointment existing : sameDayAppointments) {
-            long minutes = Math.abs(ChronoUnit.MINUTES.between(existing.getConsultationTime(), time));
-            if (minutes < 120) {
-                throw new IllegalArgumentException("Patient must have at least 2 hours between appointments on the same day.");
+        Map<Long, Doctor> doctors = new HashMap<>();
+        doctorIds.forEach(doctorId -> referenceDataService.findDoctor(doctorId)
+                .ifPresent(doctor -> doctors.put(doctorId, doctor)));
+        Map<Long, ConsultingRoom> consultingRooms = new HashMap<>();
+        consultingRoomIds.forEach(consultingRoomId -> referenceDataService.findConsultingRoom(consultingRoomId)
+                .ifPresent(consultingRoom -> consultingRooms.put(consultingRoomId, consultingRoom)));
+
+        OccupancyIndex batchIndex = new OccupancyIndex();
+        batchIndex.rebuild(firstDay, appointmentRepository.findBookedSlots(firstDay.atStartOfDay(),
+                lastDay.plusDays(1).atStartOfDay(), doctorIds, consultingRoomIds, patientNames).stream());
+
+        List<Appointment> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int i : candidates) {
+            AppointmentDto dto = appointmentDtos.get(i);
+            Doctor doctor = doctors.get(dto.getDoctorId());
+            ConsultingRoom consultingRoom = consultingRooms.get(dto.getConsultingRoomId());
+
+            if (doctor == null) {
+                bookingMetrics.rejected(DOCTOR_NOT_FOUND);
+                results[i] = BulkAppointmentResultDto.rejected(i,
+                        new ResourceNotFoundException("Doctor", "doctorId", dto.getDoctorId().toString()).getMessage());
+                continue;
             }
+            if (consultingRoom == null) {
+                bookingMetrics.rejected(CONSULTING_ROOM_NOT_FOUND);
+                results[i] = BulkAppointmentResultDto.rejected(i, new ResourceNotFoundException("Consulting room",
+                        "consultingRoomId", dto.getConsultingRoomId().toString()).getMessage());
+                continue;
+            }
+
+            BookingConflict conflict = batchIndex.check(dto.getDoctorId(), dto.getConsultingRoomId(),
+                    dto.getPatientName(), dto.getConsultationTime());
+            if (conflict != BookingConflict.NONE) {
+                bookingMetrics.rejected(conflict);
+                results[i] = BulkAppointmentResultDto.rejected(i, conflict.getMessage());
+                continue;
+            }
+
+            batchIndex.add(dto.getDoctorId(), dto.getConsultingRoomId(), dto.getPatientName(), dto.getConsultationTime());
+            accepted.add(Appointment.builder()
+                    .doctor(doctor)
+                    .consultingRoom(consultingRoom)
+                    .consultationTime(dto.getConsultationTime())
+                    .patientName(dto.getPatientName())
+                    .status(PENDING)
+                    .build());
+            acceptedIndexes.add(i);
         }
 
-        Long doctorsCount = appointmentRepository.countByDoctorIdAndConsultationTimeBetween(appointmentDto.getDoctorId(), startOfDay, endOfDay);
+        List<Appointment> saved;
+        try {
+            saved = transactionTemplate.execute(status -> appointmentRepository.saveAll(accepted));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bulk request clashed with a booking made outside the booking locks, saving it row by row");
+            saved = saveEach(accepted);
+        }
 
-        if (doctorsCount >= 8) {
-            throw new IllegalArgumentException("Doctor cannot have more than 8 appointments per day.");
+        int created = 0;
+        for (int n = 0; n < saved.size(); n++) {
+            Appointment appointment = saved.get(n);
+            int i = acceptedIndexes.get(n);
+            if (appointment == null) {
+                bookingMetrics.rejected(CONCURRENT_BOOKING);
+                results[i] = BulkAppointmentResultDto.rejected(i, CONCURRENT_BOOKING_MESSAGE);
+                continue;
+            }
+            occupancyIndex.add(appointment.getDoctor().getId(), appointment.getConsultingRoom().getId(),
+                    appointment.getPatientName(), appointment.getConsultationTime());
+            eventPublisher.publishEvent(AppointmentChangedEvent.created(AppointmentMapper.toDto(appointment)));
+            results[i] = BulkAppointmentResultDto.created(i, appointment.getId());
+            created++;
         }
 
-        Doctor doctor = doctorRepository.findById(appointmentDto.getDoctorId()).orElseThrow(
-                () -> new ResourceNotFoundException("Doctor", "doctorId", appointmentDto.getDoctorId().toString())
-        );
+        log.info("Bulk request created {} of {} appointments", created, results.length);
+    }
 
-        ConsultingRoom consultingRoom = consultingRoomRepository.findById(appointmentDto.getConsultingRoomId()).orElseThrow(
-                () -> new ResourceNotFoundException("Consulting room", "consultingRoomId", appointmentDto.getConsultingRoomId().toString())
-        );
+    /**
+     * Insert appointments one transaction each, after inserting them together broke a unique constraint: a booking
+     * made meanwhile without the booking locks, such as by a historical import, took one of their slots.
+     *
+     * @return the saved appointments, in order, with {@code null} for those whose slot was taken
+     */
+    private List<Appointment> saveEach(List<Appointment> appointments) {
+        List<Appointment> saved = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            // The rolled back batch may have given it an ID already
+            Appointment unsaved = Appointment.builder()
+                    .doctor(appointment.getDoctor())
+                    .consultingRoom(appointment.getConsultingRoom())
+                    .consultationTime(appointment.getConsultationTime())
+                    .patientName(appointment.getPatientName())
+                    .status(appointment.getStatus())
+                    .build();
+            try {
+                saved.add(transactionTemplate.execute(status -> appointmentRepository.saveAndFlush(unsaved)));
+            } catch (DataIntegrityViolationException e) {
+                saved.add(null);
+            }
+        }
+        return saved;
+    }
 
-        Appointment appointment = Appointment.builder()
-                .doctor(doctor)
-                .consultingRoom(consultingRoom)
-                .consultationTime(appointmentDto.getConsultationTime())
-                .patientName(appointmentDto.getPatientName())
-                .status(PENDING)
-                .build();
+    private Doctor getDoctor(Long doctorId) {
+        return referenceDataService.findDoctor(doctorId).orElseThrow(() -> {
+            bookingMetrics.rejected(DOCTOR_NOT_FOUND);
+            return new ResourceNotFoundException("Doctor", "doctorId", doctorId.toString());
+        });
+    }
 
-        Appointment appointmentSaved = appointmentRepository.save(appointment);
-        log.info("Appointment created successfully with ID: {}", appointmentSaved.getId());
+    private ConsultingRoom getConsultingRoom(Long consultingRoomId) {
+        return referenceDataService.findConsultingRoom(consultingRoomId).orElseThrow(() -> {
+            bookingMetrics.rejected(CONSULTING_ROOM_NOT_FOUND);
+            return new ResourceNotFoundException("Consulting room", "consultingRoomId", consultingRoomId.toString());
+        });
+    }
 
-        return appointmentSaved;
+    /**
+     * Save an appointment, flushing it so that the insert runs here. The unique constraints on doctor/time and
+     * room/time reject a booking made concurrently by another instance that this instance's occupancy index could
+     * not see.
+     */
+    private Appointment save(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            bookingMetrics.rejected(CONCURRENT_BOOKING);
+            throw new ResourceAlreadyExistsException(CONCURRENT_BOOKING_MESSAGE);
+        }
     }
 
+    /**
+     * Check the booking rules. On days the occupancy index covers, a booking the index already rejects is rejected
+     * from memory, one rule at a time, each timed on its own. The index only sees the bookings of this instance, so
+     * the booking it lets through is then checked by a single query that counts against every rule at once, in the
+     * transaction of the insert.
+     *
+     * @return the first rule the booking breaks, or {@link BookingConflict#NONE}
+     */
+    private BookingConflict checkConflicts(AppointmentDto appointmentDto) {
+        Long doctorId = appointmentDto.getDoctorId();
+        Long consultingRoomId = appointmentDto.getConsultingRoomId();
+        String patientName = appointmentDto.getPatientName();
+        LocalDateTime time = appointmentDto.getConsultationTime();
+        LocalDate date = time.toLocalDate();
+
+        if (occupancyIndex.covers(time)) {
+            BookingConflict conflict = checkIndex(doctorId, consultingRoomId, patientName, time);
+            if (conflict != BookingConflict.NONE) {
+                return conflict;
+            }
+        }
+
+        BookingRuleCounts counts = bookingMetrics.time(BookingStep.RULE_CHECK, BookingMetrics.DATABASE,
+                () -> appointmentRepository.countBookingRuleConflicts(doctorId, consultingRoomId, patientName, time,
+                        time.minusMinutes(MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS),
+                        time.plusMinutes(MIN_MINUTES_BETWEEN_PATIENT_APPOINTMENTS),
+                        date.atStartOfDay(), date.atTime(LocalTime.MAX)));
+        return firstConflict(counts);
+    }
+
+    private BookingConflict checkIndex(Long doctorId, Long consultingRoomId, String patientName, LocalDateTime time) {
+        if (bookingMetrics.time(BookingStep.ROOM_CONFLICT, BookingMetrics.INDEX,
+                () -> !occupancyIndex.isRoomFree(consultingRoomId, time))) {
+            return BookingConflict.ROOM_OCCUPIED;
+        }
+
+        if (bookingMetrics.time(BookingStep.DOCTOR_CONFLICT, BookingMetrics.INDEX,
+                () -> !occupancyIndex.isDoctorFree(doctorId, time))) {
+            return BookingConflict.DOCTOR_BOOKED;
+        }
+
+        if (bookingMetrics.time(BookingStep.PATIENT_SPACING, BookingMetrics.INDEX,
+                () -> !occupancyIndex.isPatientAvailable(patientName, time))) {
+            return BookingConflict.PATIENT_TOO_CLOSE;
+        }
+
+        long doctorsCount = bookingMetrics.time(BookingStep.DAILY_CAP, BookingMetrics.INDEX,
+                () -> occupancyIndex.doctorAppointments(doctorId, time.toLocalDate()));
+        if (doctorsCount >= MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY) {
+            return BookingConflict.DOCTOR_DAILY_LIMIT;
+        }
+
+        return BookingConflict.NONE;
+    }
+
+    /**
+     * The first rule the counts break, in the order the rules are checked against the index.
+     */
+    private static BookingConflict firstConflict(BookingRuleCounts counts) {
+        if (counts.getRoomBookings() > 0) {
+            return BookingConflict.ROOM_OCCUPIED;
+        }
+        if (counts.getDoctorBookings() > 0) {
+            return BookingConflict.DOCTOR_BOOKED;
+        }
+        if (counts.getPatientBookingsTooClose() > 0) {
+            return BookingConflict.PATIENT_TOO_CLOSE;
+        }
+        if (counts.getDoctorDayBookings() >= MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY) {
+            return BookingConflict.DOCTOR_DAILY_LIMIT;
+        }
+        return BookingConflict.NONE;
+    }
+
+    private void rejectConflict(BookingConflict conflict) {
+        if (conflict != BookingConflict.NONE) {
+            bookingMetrics.rejected(conflict);
+        }
+        switch (conflict) {
+            case ROOM_OCCUPIED, DOCTOR_BOOKED -> throw new ResourceAlreadyExistsException(conflict.getMessage());
+            case PATIENT_TOO_CLOSE, DOCTOR_DAILY_LIMIT -> throw new IllegalArgumentException(conflict.getMessage());
+            case NONE -> {
+            }
+        }
+    }
+
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<AppointmentDto> filterAppointments(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end,
+                                                    Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidSortException(order.getProperty(), SORTABLE_PROPERTIES);
+            }
+        }
+        return appointmentRepository.findDtoSlice(
+                AppointmentSpecifications.filter(doctorId, consultingRoomId, start, end), pageable);
+    }
 
     @Override
-    public List<AppointmentDto> filterAppointments(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end) {
-        List<Appointment> appointments = appointmentRepository.findAll();
-
-        return appointments.stream()
-                .filter(a -> doctorId == null || a.getDoctor().getId().equals(doctorId))
-                .filter(a -> consultingRoomId == null || a.getConsultingRoom().getId().equals(consultingRoomId))
-                .filter(a -> start == null ||
-                        (a.getConsultationTime().isEqual(start) || a.getConsultationTime().isAfter(start)) &&
-                                a.getConsultationTime().isBefore(end))
-                .map(
-                        appointment -> AppointmentDto.builder()
-                                .doctorId(appointment.getDoctor().getId())
-                                .consultingRoomId(appointment.getConsultingRoom().getId())
-                                .consultationTime(appointment.getConsultationTime())
-                                .patientName(appointment.getPatientName())
-                                .build()
-                )
-                .toList();
+    public void exportAppointments(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end,
+                                   Consumer<List<AppointmentDto>> batchConsumer) {
+        Specification<Appointment> filter = AppointmentSpecifications.filter(doctorId, consultingRoomId, start, end);
+        Pageable batch = PageRequest.of(0, EXPORT_BATCH_SIZE, Sort.by("consultationTime", "id"));
+
+        LocalDateTime lastConsultationTime = null;
+        Long lastId = null;
+        Slice<AppointmentDto> appointments;
+
+        do {
+            appointments = appointmentRepository.findDtoSlice(
+                    filter.and(AppointmentSpecifications.after(lastConsultationTime, lastId)), batch);
+            if (!appointments.hasContent()) {
+                return;
+            }
+
+            List<AppointmentDto> content = appointments.getContent();
+            AppointmentDto last = content.get(content.size() - 1);
+            lastConsultationTime = last.getConsultationTime();
+            lastId = last.getId();
+
+            batchConsumer.accept(content);
+        } while (appointments.hasNext());
     }
 
     @Override
     public boolean cancelAppointment(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId).orElse(null);
+        return bookingLocks.withAppointmentLocked(appointmentId, () -> {
+            Appointment appointment = appointmentRepository.findById(appointmentId).orElse(null);
 
-        if (appointment == null || !appointment.getStatus().equals(PENDING)) {
-            return false;
-        }
+            if (appointment == null || !appointment.getStatus().equals(PENDING)) {
+                return false;
+            }
 
-        appointment.setStatus(CANCELLED);
-        appointmentRepository.delete(appointment);
-        return true;
+            AppointmentDto cancelled = AppointmentMapper.toDto(appointment);
+            return bookingLocks.withSlotsLocked(List.of(cancelled), () -> {
+                appointment.setStatus(CANCELLED);
+                appointmentRepository.save(appointment);
+                occupancyIndex.remove(appointment.getDoctor().getId(), appointment.getConsultingRoom().getId(),
+                        appointment.getPatientName(), appointment.getConsultationTime());
+                eventPublisher.publishEvent(AppointmentChangedEvent.cancelled(cancelled));
+                return true;
+            });
+        });
     }
 
     @Override
     public AppointmentDto editAppointment(Long id, AppointmentDto dto) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        return bookingLocks.withAppointmentLocked(id, () -> {
+            Appointment appointment = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found"));
+            if (!appointment.getStatus().equals(PENDING)) {
+                throw new IllegalArgumentException("Only pending appointments can be edited.");
+            }
+
+            AppointmentDto previous = AppointmentMapper.toDto(appointment);
+            return bookingLocks.withSlotsLocked(List.of(previous, dto), () -> edit(appointment, previous, dto));
+        });
+    }
 
+    private AppointmentDto edit(Appointment appointment, AppointmentDto previous, AppointmentDto dto) {
         if (dto.getConsultationTime().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Cannot edit to a past consultation time");
         }
@@ -140,25 +484,29 @@ public class AppointmentServiceImpl implements IAppointmentService {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.plusDays(1).atStartOfDay();
 
-        long existingAppointments = appointmentRepository.countByDoctorIdAndConsultationTimeBetween(dto.getDoctorId(), start, end);
+        // From the database, which also holds the bookings other instances made
+        long existingAppointments =
+                appointmentRepository.countActiveByDoctorIdAndConsultationTimeBetween(dto.getDoctorId(), start, end);
         if (!appointment.getConsultationTime().toLocalDate().equals(date)) {
-            if (existingAppointments >= 8) {
+            if (existingAppointments >= MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY) {
                 throw new RuntimeException("Doctor already has 8 appointments that day");
             }
         }
 
         appointment.setConsultationTime(dto.getConsultationTime());
         appointment.setPatientName(dto.getPatientName());
-        appointment.setDoctor(new Doctor(dto.getDoctorId(), null, null, null, null));
-        appointment.setConsultingRoom(new ConsultingRoom(dto.getConsultingRoomId(), null, null));
-
-        Appointment saved = appointmentRepository.save(appointment);
-        return AppointmentDto.builder()
-                .doctorId(saved.getDoctor().getId())
-                .consultingRoomId(saved.getConsultingRoom().getId())
-                .consultationTime(saved.getConsultationTime())
-                .patientName(saved.getPatientName())
-                .build();
+        appointment.setDoctor(getDoctor(dto.getDoctorId()));
+        appointment.setConsultingRoom(getConsultingRoom(dto.getConsultingRoomId()));
+
+        Appointment saved = save(appointment);
+        occupancyIndex.remove(previous.getDoctorId(), previous.getConsultingRoomId(), previous.getPatientName(),
+                previous.getConsultationTime());
+        occupancyIndex.add(saved.getDoctor().getId(), saved.getConsultingRoom().getId(), saved.getPatientName(),
+                saved.getConsultationTime());
+
+        AppointmentDto current = AppointmentMapper.toDto(saved);
+        eventPublisher.publishEvent(AppointmentChangedEvent.edited(previous, current));
+        return current;
     }
 
 }
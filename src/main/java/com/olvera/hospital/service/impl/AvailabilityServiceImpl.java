@@ -0,0 +1,53 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AvailableSlotDto;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.entity.Doctor;
+import com.olvera.hospital.exception.ResourceNotFoundException;
+import com.olvera.hospital.scheduling.SlotFinder;
+import com.olvera.hospital.service.IAvailabilityService;
+import com.olvera.hospital.service.IReferenceDataService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+public class AvailabilityServiceImpl implements IAvailabilityService {
+
+    private static final int MAX_SEARCH_DAYS = 31;
+
+    private static final int MAX_SLOTS = 100;
+
+    private IReferenceDataService referenceDataService;
+
+    private SlotFinder slotFinder;
+
+    @Override
+    public List<AvailableSlotDto> findAvailableSlots(String specialty, Long consultingRoomId, String patientName,
+                                                     LocalDate from, LocalDate to, int limit) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_SEARCH_DAYS) {
+            throw new IllegalArgumentException("The search range must cover between 1 and " + MAX_SEARCH_DAYS + " days.");
+        }
+
+        List<Long> doctorIds = referenceDataService.findDoctorsBySpecialty(specialty).stream()
+                .map(Doctor::getId)
+                .toList();
+
+        List<Long> consultingRoomIds = consultingRoomId == null
+                ? referenceDataService.findAllConsultingRooms().stream().map(ConsultingRoom::getId).toList()
+                : List.of(referenceDataService.findConsultingRoom(consultingRoomId).orElseThrow(
+                () -> new ResourceNotFoundException("Consulting room", "consultingRoomId", consultingRoomId.toString())
+        ).getId());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.atStartOfDay().isAfter(now) ? from.atStartOfDay() : now;
+
+        return slotFinder.findAvailableSlots(doctorIds, consultingRoomIds, patientName, start,
+                to.plusDays(1).atStartOfDay(), Math.min(Math.max(limit, 1), MAX_SLOTS));
+    }
+}
@@ -0,0 +1,31 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.PatientMatchDto;
+import com.olvera.hospital.search.PatientNameIndex;
+import com.olvera.hospital.service.IPatientSearchService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+public class PatientSearchServiceImpl implements IPatientSearchService {
+
+    private static final int MAX_MATCHES = 100;
+
+    private PatientNameIndex patientNameIndex;
+
+    /**
+     * Find the patients with appointments that are not cancelled whose name has words starting with the words of
+     * the search, from memory.
+     *
+     * @param name  the start of one or more words of the patient name
+     * @param limit the maximum number of patients to return, at most {@value #MAX_MATCHES}
+     * @return the matching patients with the IDs of their appointments
+     */
+    @Override
+    public List<PatientMatchDto> searchPatients(String name, int limit) {
+        return patientNameIndex.search(name, Math.min(Math.max(limit, 1), MAX_MATCHES));
+    }
+}
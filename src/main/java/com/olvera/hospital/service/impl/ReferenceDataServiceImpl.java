@@ -0,0 +1,115 @@
+package com.olvera.hospital.service.impl;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.olvera.hospital.dto.CacheStatisticsDto;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.entity.Doctor;
+import com.olvera.hospital.repository.ConsultingRoomRepository;
+import com.olvera.hospital.repository.DoctorRepository;
+import com.olvera.hospital.service.IReferenceDataService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Doctors and consulting rooms change a few times a year but are read on every booking, so lookups are served
+ * from bounded Caffeine caches. Evict the entry when a doctor or room is changed. Missing IDs are not cached, so a
+ * doctor or room is found as soon as it is added, without an eviction.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor
+public class ReferenceDataServiceImpl implements IReferenceDataService {
+
+    public static final String DOCTORS_CACHE = "doctors";
+
+    public static final String CONSULTING_ROOMS_CACHE = "consultingRooms";
+
+    public static final String SPECIALTY_DOCTORS_CACHE = "doctorsBySpecialty";
+
+    public static final String ALL_CONSULTING_ROOMS_CACHE = "allConsultingRooms";
+
+    private DoctorRepository doctorRepository;
+
+    private ConsultingRoomRepository consultingRoomRepository;
+
+    private CacheManager cacheManager;
+
+    @Override
+    @Cacheable(cacheNames = DOCTORS_CACHE, unless = "#result == null")
+    public Optional<Doctor> findDoctor(Long doctorId) {
+        return doctorRepository.findById(doctorId);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CONSULTING_ROOMS_CACHE, unless = "#result == null")
+    public Optional<ConsultingRoom> findConsultingRoom(Long consultingRoomId) {
+        return consultingRoomRepository.findById(consultingRoomId);
+    }
+
+    @Override
+    @Cacheable(cacheNames = SPECIALTY_DOCTORS_CACHE, key = "#specialty.toLowerCase()")
+    public List<Doctor> findDoctorsBySpecialty(String specialty) {
+        return List.copyOf(doctorRepository.findBySpecialtyIgnoreCaseOrderById(specialty));
+    }
+
+    @Override
+    @Cacheable(cacheNames = ALL_CONSULTING_ROOMS_CACHE, key = "'all'")
+    public List<ConsultingRoom> findAllConsultingRooms() {
+        return List.copyOf(consultingRoomRepository.findAll(Sort.by("id")));
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(DOCTORS_CACHE),
+            @CacheEvict(cacheNames = SPECIALTY_DOCTORS_CACHE, allEntries = true)
+    })
+    public void evictDoctor(Long doctorId) {
+        log.info("Doctor {} evicted from the cache", doctorId);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(CONSULTING_ROOMS_CACHE),
+            @CacheEvict(cacheNames = ALL_CONSULTING_ROOMS_CACHE, allEntries = true)
+    })
+    public void evictConsultingRoom(Long consultingRoomId) {
+        log.info("Consulting room {} evicted from the cache", consultingRoomId);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {DOCTORS_CACHE, CONSULTING_ROOMS_CACHE, SPECIALTY_DOCTORS_CACHE, ALL_CONSULTING_ROOMS_CACHE},
+            allEntries = true)
+    public void evictAll() {
+        log.info("Reference data caches cleared");
+    }
+
+    @Override
+    public List<CacheStatisticsDto> getCacheStatistics() {
+        return List.of(statistics(DOCTORS_CACHE), statistics(CONSULTING_ROOMS_CACHE),
+                statistics(SPECIALTY_DOCTORS_CACHE), statistics(ALL_CONSULTING_ROOMS_CACHE));
+    }
+
+    private CacheStatisticsDto statistics(String cacheName) {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(cacheName);
+        CacheStats stats = cache.getNativeCache().stats();
+
+        return CacheStatisticsDto.builder()
+                .name(cacheName)
+                .size(cache.getNativeCache().estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
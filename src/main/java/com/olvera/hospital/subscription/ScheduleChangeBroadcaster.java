@@ -0,0 +1,239 @@
+package com.olvera.hospital.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.util.AppointmentChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed appointment changes to the Server-Sent Event subscribers whose {@link ScheduleFilter} they match.
+ * <p>
+ * An idle subscriber is an open async request and a small buffer, and holds no thread. Each change is serialized
+ * once and queued to the buffer of every matching subscriber; a few dispatch threads then write the buffers out,
+ * so a slow client never holds up the booking that published the change. A subscriber whose buffer is full has
+ * stopped keeping up: it is evicted, and its client reconnects and reloads the schedule.
+ * <p>
+ * Sending blocks: a client that stopped reading keeps a dispatch thread in its send until the container's write
+ * times out, and while every dispatch thread is so stuck the other subscribers wait, their buffers filling up.
+ * {@link SubscriptionProperties#dispatchThreads()} is how many stalled clients that takes.
+ * <p>
+ * Archiving only moves past appointments out of the live table, so it is not a change of any schedule and is not
+ * sent.
+ */
+@Component
+@Slf4j
+public class ScheduleChangeBroadcaster {
+
+    public static final String SUBSCRIBERS_GAUGE = "hospital.schedule.subscribers";
+
+    public static final String EVICTIONS_COUNTER = "hospital.schedule.subscribers.evicted";
+
+    // After which the client reconnects, as it does after an eviction
+    private static final long SUBSCRIPTION_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ObjectMapper objectMapper;
+
+    private final Executor dispatcher;
+
+    private final int bufferSize;
+
+    private final Counter evictions;
+
+    @Autowired
+    public ScheduleChangeBroadcaster(SubscriptionProperties properties, ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, Executors.newFixedThreadPool(properties.dispatchThreads(),
+                daemonThreads()));
+    }
+
+    ScheduleChangeBroadcaster(SubscriptionProperties properties, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry, Executor dispatcher) {
+        this.objectMapper = objectMapper;
+        this.dispatcher = dispatcher;
+        this.bufferSize = properties.bufferSize();
+
+        Gauge.builder(SUBSCRIBERS_GAUGE, subscribers, Set::size)
+                .description("Open schedule change subscriptions")
+                .register(meterRegistry);
+        this.evictions = Counter.builder(EVICTIONS_COUNTER)
+                .description("Schedule change subscribers evicted for not keeping up")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a subscription to the changes of the schedules the filter selects.
+     */
+    public SseEmitter subscribe(ScheduleFilter filter) {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(filter, emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.type() == AppointmentChangeType.ARCHIVED) {
+            return;
+        }
+        Set<DataWithMediaType> message = null;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(event)) {
+                if (message == null) {
+                    message = SseEmitter.event()
+                            .name(event.type().name().toLowerCase(Locale.ROOT))
+                            .data(serialize(event), MediaType.APPLICATION_JSON)
+                            .build();
+                }
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    /**
+     * Send a comment to every subscriber, so that connections nothing was sent on for a while are found closed,
+     * and clients that stopped reading fill their buffer and get evicted.
+     */
+    @Scheduled(initialDelayString = "${hospital.subscriptions.heartbeat-interval:PT30S}",
+            fixedDelayString = "${hospital.subscriptions.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        subscribers.forEach(subscriber -> subscriber.offer(heartbeat));
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private String serialize(AppointmentChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreads() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("schedule-events-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * A subscription and the events waiting to be sent to it. At most one dispatch thread drains it at a time.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final ScheduleFilter filter;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean evicted;
+
+        private volatile boolean closed;
+
+        private Subscriber(ScheduleFilter filter, SseEmitter emitter) {
+            this.filter = filter;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> message) {
+            if (!buffer.offer(message)) {
+                evict();
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Set<DataWithMediaType> message;
+                while (!closed && !evicted && (message = buffer.poll()) != null) {
+                    emitter.send(message);
+                }
+                if (!closed && evicted) {
+                    closed = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, or the subscription was completed while sending
+                closed = true;
+                subscribers.remove(this);
+                buffer.clear();
+            } finally {
+                scheduled.set(false);
+            }
+            // An event or an eviction may have come in after the buffer was found empty
+            if (!closed && (evicted || !buffer.isEmpty())) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Drop the subscriber and its pending events. The emitter is completed by the subscriber's own dispatch,
+         * after any send still blocked on the client, so that evicting never waits on a slow connection.
+         */
+        private void evict() {
+            if (subscribers.remove(this)) {
+                evicted = true;
+                evictions.increment();
+                log.debug("Evicted schedule subscriber of {} with {} events pending", filter, buffer.size());
+                buffer.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.olvera.hospital.subscription;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+
+import java.time.LocalDate;
+
+/**
+ * The schedules a subscriber follows. Each criterion is optional: a subscriber following none of them gets every
+ * change of the clinic.
+ *
+ * @param doctorId         only changes of the doctor's appointments
+ * @param consultingRoomId only changes of the consulting room's appointments
+ * @param day              only changes of appointments on that day
+ */
+public record ScheduleFilter(Long doctorId, Long consultingRoomId, LocalDate day) {
+
+    /**
+     * Whether the change touches a followed schedule, through the slot the appointment left or the one it took.
+     */
+    public boolean matches(AppointmentChangedEvent event) {
+        return event.states().anyMatch(this::matches);
+    }
+
+    private boolean matches(AppointmentDto appointment) {
+        return (doctorId == null || doctorId.equals(appointment.getDoctorId()))
+                && (consultingRoomId == null || consultingRoomId.equals(appointment.getConsultingRoomId()))
+                && (day == null || day.equals(appointment.getConsultationTime().toLocalDate()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.olvera.hospital.subscription;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Schedule change subscriptions. Every subscriber also gets a heartbeat every
+ * {@code hospital.subscriptions.heartbeat-interval}, which evicts the ones that stopped reading.
+ *
+ * @param bufferSize      how many events can wait to be sent to one subscriber before it is evicted as too slow
+ * @param dispatchThreads how many threads send the buffered events to the subscribers, and so how many clients that
+ *                        stopped reading it takes to delay the others until their writes time out
+ */
+@ConfigurationProperties(prefix = "hospital.subscriptions")
+public record SubscriptionProperties(
+        @DefaultValue("32") int bufferSize,
+        @DefaultValue("2") int dispatchThreads) {
+}
@@ -0,0 +1,12 @@
+package com.olvera.hospital.util;
+
+/**
+ * The booking journal stores the ordinal: new constants go at the end.
+ */
+public enum AppointmentChangeType {
+
+    CREATED,
+    EDITED,
+    CANCELLED,
+    ARCHIVED
+}
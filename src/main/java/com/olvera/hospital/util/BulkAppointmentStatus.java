@@ -0,0 +1,7 @@
+package com.olvera.hospital.util;
+
+public enum BulkAppointmentStatus {
+
+    CREATED,
+    REJECTED
+}
@@ -1,6 +1,6 @@
 -- Table: doctor
 CREATE TABLE doctor (
-    doctor_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     first_name VARCHAR(100) NOT NULL,
     last_name VARCHAR(100) NOT NULL,
     middle_name VARCHAR(100),
@@ -9,9 +9,9 @@ CREATE TABLE doctor (
 
 -- Table: consulting_room
 CREATE TABLE consulting_room (
-    consulting_room_id BIGINT PRIMARY KEY AUTO_INCREMENT,
-    room_number INT NOT NULL,
-    floor INT NOT NULL
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_number VARCHAR(20) NOT NULL,
+    floor VARCHAR(20) NOT NULL
 );
 
 -- Insert doctors
@@ -24,8 +24,8 @@ INSERT INTO doctor (first_name, last_name, middle_name, specialty) VALUES
 
 -- Insert consulting rooms
 INSERT INTO consulting_room (room_number, floor) VALUES
-    (101, 1),
-    (102, 1),
-    (201, 2),
-    (202, 2),
-    (301, 3);
+    ('101', '1'),
+    ('102', '1'),
+    ('201', '2'),
+    ('202', '2'),
+    ('301', '3');
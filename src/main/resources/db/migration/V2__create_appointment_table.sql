@@ -0,0 +1,24 @@
+-- Table: appointment
+CREATE TABLE appointment (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    doctor_id BIGINT NOT NULL,
+    consulting_room_id BIGINT NOT NULL,
+    consultation_time TIMESTAMP(6) NOT NULL,
+    patient_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    CONSTRAINT fk_appointment_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id),
+    CONSTRAINT fk_appointment_consulting_room FOREIGN KEY (consulting_room_id) REFERENCES consulting_room (id),
+    CONSTRAINT ck_appointment_status CHECK (status IN ('PENDING', 'COMPLETED', 'CANCELLED'))
+);
+
+-- A doctor and a consulting room can only hold one appointment at a time.
+-- The unique constraints are backed by the (doctor_id, consultation_time) and
+-- (consulting_room_id, consultation_time) composite indexes used by the booking and filter queries.
+ALTER TABLE appointment ADD CONSTRAINT uk_appointment_doctor_time UNIQUE (doctor_id, consultation_time);
+ALTER TABLE appointment ADD CONSTRAINT uk_appointment_room_time UNIQUE (consulting_room_id, consultation_time);
+
+-- Patient same-day lookups
+CREATE INDEX idx_appointment_patient_time ON appointment (patient_name, consultation_time);
+
+-- Keyset export and date-only filters
+CREATE INDEX idx_appointment_time ON appointment (consultation_time, id);
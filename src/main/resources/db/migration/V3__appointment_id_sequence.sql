@@ -0,0 +1,8 @@
+-- Draw appointment IDs from a sequence so Hibernate can batch inserts.
+-- Hibernate's pooled optimizer reserves blocks of 50 IDs ending at each sequence value,
+-- so the sequence restarts one full block above the current highest ID.
+CREATE SEQUENCE appointment_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE appointment_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM appointment);
+
+ALTER TABLE appointment ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE appointment ALTER COLUMN id SET DEFAULT NEXT VALUE FOR appointment_seq;
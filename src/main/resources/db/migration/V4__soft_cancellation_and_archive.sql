@@ -0,0 +1,37 @@
+-- Cancelled appointments keep their row, so they must no longer hold their doctor and room slots.
+-- The active_* columns repeat the doctor and room of an appointment that is not cancelled and are NULL
+-- otherwise; unique constraints ignore rows with a NULL column. On PostgreSQL the same rule is a partial
+-- unique index: UNIQUE (doctor_id, consultation_time) WHERE status <> 'CANCELLED'.
+ALTER TABLE appointment ADD COLUMN active_doctor_id BIGINT
+    GENERATED ALWAYS AS (CASE WHEN status <> 'CANCELLED' THEN doctor_id END);
+ALTER TABLE appointment ADD COLUMN active_consulting_room_id BIGINT
+    GENERATED ALWAYS AS (CASE WHEN status <> 'CANCELLED' THEN consulting_room_id END);
+
+ALTER TABLE appointment DROP CONSTRAINT uk_appointment_doctor_time;
+ALTER TABLE appointment DROP CONSTRAINT uk_appointment_room_time;
+ALTER TABLE appointment ADD CONSTRAINT uk_appointment_active_doctor_time UNIQUE (active_doctor_id, consultation_time);
+ALTER TABLE appointment ADD CONSTRAINT uk_appointment_active_room_time UNIQUE (active_consulting_room_id, consultation_time);
+
+-- The booking and filter queries look up doctor_id and consulting_room_id, which the new constraints no longer index
+CREATE INDEX idx_appointment_doctor_time ON appointment (doctor_id, consultation_time);
+CREATE INDEX idx_appointment_room_time ON appointment (consulting_room_id, consultation_time);
+
+-- Past completed and cancelled appointments, for the archival job
+CREATE INDEX idx_appointment_status_time ON appointment (status, consultation_time);
+
+-- Table: appointment_archive
+-- Past completed and cancelled appointments, moved out of the appointment table by the archival job.
+-- Rows are never updated, and doctors and rooms are referenced by ID only.
+CREATE TABLE appointment_archive (
+    id BIGINT PRIMARY KEY,
+    doctor_id BIGINT NOT NULL,
+    consulting_room_id BIGINT NOT NULL,
+    consultation_time TIMESTAMP(6) NOT NULL,
+    patient_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+-- History by doctor or by patient
+CREATE INDEX idx_appointment_archive_doctor_time ON appointment_archive (doctor_id, consultation_time);
+CREATE INDEX idx_appointment_archive_patient_time ON appointment_archive (patient_name, consultation_time);
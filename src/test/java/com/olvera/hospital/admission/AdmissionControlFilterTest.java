@@ -0,0 +1,132 @@
+package com.olvera.hospital.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionControlFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong now = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+
+    // Reads: 2 per second, 3 at once, 2 in flight; writes: 1 per second, 1 at once, 1 in flight
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(
+            new AdmissionProperties(true, 2, 3, 2, 1, 1, 1), new ObjectMapper().findAndRegisterModules(),
+            meterRegistry, now::get);
+
+    private final AtomicInteger served = new AtomicInteger();
+
+    @Test
+    void clientOverItsRateIsShedUntilItsBucketRefills() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, get("10.0.0.1").getStatus());
+        }
+        MockHttpServletResponse shed = get("10.0.0.1");
+        assertEquals(429, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+
+        // Other clients and the writes of the same client have budgets of their own
+        assertEquals(200, get("10.0.0.2").getStatus());
+        assertEquals(200, request("POST", "10.0.0.1").getStatus());
+        assertEquals(429, request("POST", "10.0.0.1").getStatus());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(200, get("10.0.0.1").getStatus());
+        assertEquals(429, get("10.0.0.1").getStatus());
+        assertEquals(6, served.get());
+        assertEquals(3, meterRegistry.get(AdmissionBudget.REJECTIONS_COUNTER)
+                .tags("reason", "rate").counters().stream().mapToDouble(Counter::count).sum());
+    }
+
+    @Test
+    void requestsOverTheConcurrencyLimitAreShed() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        MockHttpServletResponse[] third = new MockHttpServletResponse[1];
+
+        // The third request arrives while the first two are being served
+        filter.doFilter(request("GET", "/api/appointment/filter", "10.0.0.1"), first, (request, response) ->
+                filter.doFilter(request("GET", "/api/appointment/filter", "10.0.0.2"), second,
+                        (nestedRequest, nestedResponse) -> third[0] = get("10.0.0.3")));
+
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third[0].getStatus());
+        assertEquals("1", third[0].getHeader("Retry-After"));
+        // Both places were given back
+        assertEquals(200, get("10.0.0.4").getStatus());
+        assertEquals(200, get("10.0.0.5").getStatus());
+    }
+
+    @Test
+    void asyncRequestKeepsItsPlaceUntilItsResponseIsComplete() throws Exception {
+        MockHttpServletRequest export = async("10.0.0.1", MediaType.APPLICATION_NDJSON_VALUE);
+        async("10.0.0.2", MediaType.TEXT_EVENT_STREAM_VALUE);
+        async("10.0.0.3", MediaType.APPLICATION_NDJSON_VALUE);
+
+        // The subscription gave its place back, the two exports still hold theirs
+        assertEquals(429, get("10.0.0.4").getStatus());
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertEquals(200, get("10.0.0.4").getStatus());
+    }
+
+    @Test
+    void otherPathsAreNotLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("GET", "/api/reference-data/cache/doctors", "10.0.0.1"), response, this::serve);
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader("Retry-After"));
+        }
+    }
+
+    private MockHttpServletResponse get(String client) throws ServletException, IOException {
+        return request("GET", client);
+    }
+
+    private MockHttpServletResponse request(String method, String client) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String path = method.equals("GET") ? "/api/appointment/filter" : "/api/appointment/create";
+        filter.doFilter(request(method, path, client), response, this::serve);
+        return response;
+    }
+
+    private MockHttpServletRequest async(String client, String contentType) throws ServletException, IOException {
+        MockHttpServletRequest request = request("GET", "/api/appointment/export", client);
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (startedRequest, startedResponse) -> {
+            startedResponse.setContentType(contentType);
+            startedRequest.startAsync();
+        });
+        assertEquals(200, response.getStatus());
+        return request;
+    }
+
+    private void serve(Object request, Object response) {
+        served.incrementAndGet();
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(client);
+        return request;
+    }
+}
@@ -0,0 +1,81 @@
+package com.olvera.hospital.cache;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.event.AppointmentsImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ScheduleVersionsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private ScheduleVersions scheduleVersions;
+
+    @BeforeEach
+    void setUp() {
+        scheduleVersions = new ScheduleVersions();
+    }
+
+    @Test
+    void forgottenDaysMoveToANewVersionOnce() {
+        scheduleVersions.onAppointmentChanged(AppointmentChangedEvent.created(appointment(1L, 1L, DAY)));
+        scheduleVersions.onAppointmentsImported(new AppointmentsImportedEvent(Set.of(DAY.minusDays(1)), Map.of()));
+        scheduleVersions.onAppointmentChanged(AppointmentChangedEvent.created(appointment(1L, 1L, DAY.plusDays(1))));
+        String before = clinic(DAY);
+        String yesterday = clinic(DAY.minusDays(1));
+        String tomorrow = clinic(DAY.plusDays(1));
+
+        scheduleVersions.forgetBefore(DAY.plusDays(1));
+
+        assertEquals(3, scheduleVersions.size());
+        assertNotEquals(before, clinic(DAY));
+        assertNotEquals(yesterday, clinic(DAY.minusDays(1)));
+        assertEquals(tomorrow, clinic(DAY.plusDays(1)));
+        // Untouched doctors of a forgotten day move too, since there is no telling them apart any more
+        assertNotEquals("0.0", scheduleVersions.version(new ScheduleQuery(2L, 2L, DAY, null)));
+
+        String forgotten = clinic(DAY);
+        scheduleVersions.forgetBefore(DAY.plusDays(1));
+        scheduleVersions.forgetBefore(DAY);
+        assertEquals(forgotten, clinic(DAY));
+    }
+
+    @Test
+    void changeOfAForgottenDayMovesItAgain() {
+        scheduleVersions.onAppointmentChanged(AppointmentChangedEvent.created(appointment(1L, 1L, DAY)));
+        scheduleVersions.forgetBefore(DAY.plusDays(1));
+        String forgotten = clinic(DAY);
+
+        AppointmentDto archived = appointment(1L, 1L, DAY);
+        scheduleVersions.onAppointmentChanged(AppointmentChangedEvent.archived(archived));
+        String changed = clinic(DAY);
+        assertNotEquals(forgotten, changed);
+        assertEquals(3, scheduleVersions.size());
+
+        scheduleVersions.forgetBefore(DAY.plusDays(1));
+        assertEquals(0, scheduleVersions.size());
+        assertNotEquals(forgotten, clinic(DAY));
+        assertNotEquals(changed, clinic(DAY));
+    }
+
+    private String clinic(LocalDate day) {
+        return scheduleVersions.version(new ScheduleQuery(null, null, day, null));
+    }
+
+    private static AppointmentDto appointment(Long doctorId, Long consultingRoomId, LocalDate day) {
+        return AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(day.atTime(9, 0))
+                .patientName("Versioned Patient")
+                .build();
+    }
+}
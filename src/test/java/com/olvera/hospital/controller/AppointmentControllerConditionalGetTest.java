@@ -0,0 +1,142 @@
+package com.olvera.hospital.controller;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.service.IAppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Polls day schedules with and without their ETag: an unchanged schedule is answered from memory, and a change
+ * moves the ETag of exactly the schedules it touched.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentControllerConditionalGetTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2035, 3, 12, 0, 0);
+
+    private static final String DATE = "2035-03-12";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void bookAppointments() {
+        book(1L, 1L, DAY.withHour(9), "Polled Patient 1");
+        book(1L, 2L, DAY.withHour(10), "Polled Patient 2");
+        book(4L, 3L, DAY.withHour(9), "Polled Patient 3");
+        book(5L, 4L, DAY.withHour(9), "Polled Patient 4");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void unchangedScheduleIsServedWithoutQuery() throws Exception {
+        MvcResult first = poll(1L, null).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        poll(1L, etag)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        MvcResult cached = poll(1L, null)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string("X-Has-Next-Page", "false"))
+                .andReturn();
+
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), cached.getResponse().getContentAsByteArray());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void changesMoveOnlyTheSchedulesTheyTouch() throws Exception {
+        String doctor4 = etag(4L);
+        String doctor5 = etag(5L);
+        String doctor1 = etag(1L);
+
+        Appointment created = book(4L, 5L, DAY.withHour(14), "Polled Patient 5");
+        poll(4L, doctor4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        poll(5L, doctor5).andExpect(status().isNotModified());
+        doctor4 = etag(4L);
+
+        appointmentService.editAppointment(created.getId(), AppointmentDto.builder()
+                .doctorId(5L)
+                .consultingRoomId(5L)
+                .consultationTime(DAY.withHour(14))
+                .patientName("Polled Patient 5")
+                .build());
+        poll(4L, doctor4).andExpect(jsonPath("$.length()").value(1));
+        poll(5L, doctor5).andExpect(jsonPath("$.length()").value(2));
+        doctor5 = etag(5L);
+
+        appointmentService.cancelAppointment(created.getId());
+        poll(5L, doctor5).andExpect(jsonPath("$.length()").value(1));
+
+        poll(1L, doctor1).andExpect(status().isNotModified());
+        assertNotEquals(doctor5, etag(5L));
+    }
+
+    private ResultActions poll(Long doctorId, String etag) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/appointment/filter")
+                .param("doctorId", doctorId.toString())
+                .param("consultationDate", DATE);
+        return mockMvc.perform(etag == null ? request : request.header(HttpHeaders.IF_NONE_MATCH, etag));
+    }
+
+    private String etag(Long doctorId) throws Exception {
+        return poll(doctorId, null).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private Appointment book(Long doctorId, Long consultingRoomId, LocalDateTime time, String patientName) {
+        return appointmentService.createAppointment(AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build());
+    }
+}
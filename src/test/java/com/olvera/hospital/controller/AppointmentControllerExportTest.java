@@ -0,0 +1,135 @@
+package com.olvera.hospital.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.encoding.AppointmentBinaryFormat;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports more appointments than fit in one keyset batch, three at every consultation time so that the batch
+ * boundary falls between appointments that share one. The rows are inserted directly, past the booking rules, and
+ * deleted afterwards.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentControllerExportTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2043, 1, 5, 0, 0);
+
+    private static final int CONSULTATION_TIMES = 400;
+
+    private static final int APPOINTMENTS_PER_TIME = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void insertAppointments() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int n = 0; n < CONSULTATION_TIMES; n++) {
+            LocalDateTime time = DAY.plusMinutes(10L * n);
+            // Inserted out of ID order within a time, which the keyset must not care about
+            for (long doctorId = APPOINTMENTS_PER_TIME; doctorId >= 1; doctorId--) {
+                rows.add(new Object[]{doctorId, doctorId, time, "Export Patient " + n, "PENDING"});
+            }
+            if (n % 10 == 0) {
+                rows.add(new Object[]{4L, 4L, time, "Cancelled Patient " + n, "CANCELLED"});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into appointment (doctor_id, consulting_room_id, consultation_time, " +
+                "patient_name, status) values (?, ?, ?, ?, ?)", rows);
+    }
+
+    @AfterAll
+    void deleteAppointments() {
+        jdbcTemplate.update("delete from appointment where consultation_time >= ? and consultation_time < ?",
+                DAY, DAY.plusDays(7));
+    }
+
+    @Test
+    void keysetBatchesNeitherSkipNorRepeatRows() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(get("/api/appointment/export")
+                        .param("from", "2043-01-05")
+                        .param("to", "2043-01-11"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The export alone gets the long timeout
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<AppointmentDto> exported = new ArrayList<>();
+        for (String line : body.lines().toList()) {
+            exported.add(objectMapper.readValue(line, AppointmentDto.class));
+        }
+
+        List<Long> expected = jdbcTemplate.queryForList("select id from appointment where consultation_time >= ? " +
+                "and consultation_time < ? and status <> 'CANCELLED' order by consultation_time, id", Long.class,
+                DAY, DAY.plusDays(7));
+        assertEquals(CONSULTATION_TIMES * APPOINTMENTS_PER_TIME, expected.size());
+        assertEquals(expected, exported.stream().map(AppointmentDto::getId).toList());
+        // 1 000 rows, then the 200 after them
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void binaryEncodingRefusedByItsQualityIsNotSent() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/appointment/export")
+                        .header(HttpHeaders.ACCEPT, AppointmentBinaryFormat.MEDIA_TYPE_VALUE + ";q=0, */*")
+                        .param("from", "2043-01-05")
+                        .param("to", "2043-01-05"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Export Patient 0", objectMapper.readValue(body.lines().findFirst().orElseThrow(),
+                AppointmentDto.class).getPatientName());
+    }
+}
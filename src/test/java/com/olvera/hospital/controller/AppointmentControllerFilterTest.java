@@ -0,0 +1,167 @@
+package com.olvera.hospital.controller;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.repository.AppointmentSpecifications;
+import com.olvera.hospital.service.IAppointmentService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lists the appointments of two days through the filter API and the specifications behind it: only the filters
+ * supplied narrow the query, cancelled appointments are never listed, and pages are slices that tell whether
+ * another page follows without counting the matches.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentControllerFilterTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2042, 3, 3, 0, 0);
+
+    private static final String DATE = "2042-03-03";
+
+    private static final Sort BY_TIME = Sort.by("consultationTime", "id");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private Long first;
+
+    private Long second;
+
+    private Long third;
+
+    private Long fourth;
+
+    private Long nextDay;
+
+    @BeforeAll
+    void bookAppointments() {
+        first = book(1L, 1L, DAY.withHour(9), "Filter Patient C");
+        second = book(1L, 2L, DAY.withHour(10), "Filter Patient A");
+        third = book(2L, 1L, DAY.withHour(10), "Filter Patient B");
+        fourth = book(2L, 2L, DAY.withHour(11), "Filter Patient D");
+        appointmentService.cancelAppointment(book(1L, 3L, DAY.withHour(12), "Filter Patient E"));
+        nextDay = book(1L, 1L, DAY.plusDays(1).withHour(9), "Filter Patient F");
+    }
+
+    @Test
+    void hasNextPageHeaderIsFalseOnAFullLastPage() throws Exception {
+        mockMvc.perform(get("/api/appointment/filter")
+                        .param("consultationDate", DATE)
+                        .param("sort", "consultationTime", "id")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next-Page", "true"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first))
+                .andExpect(jsonPath("$[1].id").value(second));
+
+        mockMvc.perform(get("/api/appointment/filter")
+                        .param("consultationDate", DATE)
+                        .param("sort", "consultationTime", "id")
+                        .param("size", "2")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next-Page", "false"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(third))
+                .andExpect(jsonPath("$[1].id").value(fourth));
+    }
+
+    @Test
+    void sliceReadsOneRowPastThePage() {
+        Slice<AppointmentDto> full = appointmentRepository.findDtoSlice(
+                AppointmentSpecifications.filter(null, null, DAY, DAY.plusDays(1)), PageRequest.of(0, 4, BY_TIME));
+        assertEquals(4, full.getNumberOfElements());
+        assertFalse(full.hasNext());
+
+        Slice<AppointmentDto> cut = appointmentRepository.findDtoSlice(
+                AppointmentSpecifications.filter(null, null, DAY, DAY.plusDays(1)), PageRequest.of(0, 3, BY_TIME));
+        assertEquals(List.of(first, second, third), ids(cut));
+        assertTrue(cut.hasNext());
+    }
+
+    @Test
+    void suppliedFiltersAreCombined() {
+        assertEquals(List.of(first, second, third, fourth), filter(null, null, DAY, DAY.plusDays(1)));
+        // The cancelled appointment of doctor 1 is left out
+        assertEquals(List.of(first, second), filter(1L, null, DAY, DAY.plusDays(1)));
+        assertEquals(List.of(first, third), filter(null, 1L, DAY, DAY.plusDays(1)));
+        assertEquals(List.of(first), filter(1L, 1L, DAY, DAY.plusDays(1)));
+        assertEquals(List.of(first, nextDay), filter(1L, 1L, DAY, DAY.plusDays(2)));
+        assertEquals(List.of(nextDay), filter(1L, 1L, DAY.plusDays(1), DAY.plusDays(2)));
+    }
+
+    @Test
+    void sortIsLimitedToIndexedFields() throws Exception {
+        mockMvc.perform(get("/api/appointment/filter")
+                        .param("consultationDate", DATE)
+                        .param("sort", "patientName,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].patientName", contains(
+                        "Filter Patient D", "Filter Patient C", "Filter Patient B", "Filter Patient A")));
+
+        mockMvc.perform(get("/api/appointment/filter")
+                        .param("consultationDate", DATE)
+                        .param("sort", "status"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value(
+                        "Appointments cannot be sorted by 'status'. Sort by one of: consultationTime, id, patientName"));
+
+        mockMvc.perform(get("/api/appointment/filter")
+                        .param("doctorId", "1")
+                        .param("sort", "doctor.name"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> filter(Long doctorId, Long consultingRoomId, LocalDateTime start, LocalDateTime end) {
+        return ids(appointmentRepository.findDtoSlice(
+                AppointmentSpecifications.filter(doctorId, consultingRoomId, start, end), PageRequest.of(0, 50, BY_TIME)));
+    }
+
+    private static List<Long> ids(Slice<AppointmentDto> slice) {
+        return slice.map(AppointmentDto::getId).getContent();
+    }
+
+    private Long book(Long doctorId, Long consultingRoomId, LocalDateTime time, String patientName) {
+        Appointment appointment = appointmentService.createAppointment(AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build());
+        return appointment.getId();
+    }
+}
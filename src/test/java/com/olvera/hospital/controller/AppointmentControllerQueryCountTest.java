@@ -0,0 +1,161 @@
+package com.olvera.hospital.controller;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.encoding.AppointmentBinaryDecoder;
+import com.olvera.hospital.encoding.AppointmentBinaryFormat;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.entity.ConsultingRoom;
+import com.olvera.hospital.entity.Doctor;
+import com.olvera.hospital.service.IAppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the JDBC statements and entity loads behind the appointment read paths: listing appointments
+ * is a single projection query that never hydrates an appointment, doctor or consulting room.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentControllerQueryCountTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2034, 1, 9, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Appointment edited;
+
+    @BeforeAll
+    void bookAppointments() {
+        edited = book(2L, 1L, DAY.withHour(9), "Query Patient 1");
+        book(2L, 2L, DAY.withHour(10), "Query Patient 2");
+        book(2L, 3L, DAY.withHour(11), "Query Patient 3");
+        book(3L, 4L, DAY.withHour(9), "Query Patient 4");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void filterIsOneProjectionQuery() throws Exception {
+        mockMvc.perform(get("/api/appointment/filter")
+                        .param("doctorId", "2")
+                        .param("consultationDate", "2034-01-09")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next-Page", "true"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(edited.getId()))
+                .andExpect(jsonPath("$[0].consultingRoomId").value(1));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertNoEntityLoaded();
+    }
+
+    @Test
+    void exportIsOneProjectionQueryPerBatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/appointment/export")
+                        .param("doctorId", "2")
+                        .param("from", "2034-01-09")
+                        .param("to", "2034-01-09"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(3, body.lines().count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertNoEntityLoaded();
+    }
+
+    @Test
+    void binaryExportIsOneProjectionQueryPerBatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/appointment/export")
+                        .accept(AppointmentBinaryFormat.MEDIA_TYPE)
+                        .param("doctorId", "2")
+                        .param("from", "2034-01-09")
+                        .param("to", "2034-01-09"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(AppointmentBinaryFormat.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        AppointmentBinaryDecoder decoder = new AppointmentBinaryDecoder(new ByteArrayInputStream(body));
+        List<String> patientNames = new ArrayList<>();
+        for (AppointmentDto appointment = decoder.next(); appointment != null; appointment = decoder.next()) {
+            patientNames.add(appointment.getPatientName());
+        }
+        assertEquals(List.of("Query Patient 1", "Query Patient 2", "Query Patient 3"), patientNames);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertNoEntityLoaded();
+    }
+
+    @Test
+    void editDoesNotLoadDoctorOrConsultingRoom() {
+        appointmentService.editAppointment(edited.getId(), AppointmentDto.builder()
+                .doctorId(2L)
+                .consultingRoomId(1L)
+                .consultationTime(DAY.withHour(9).plusMinutes(30))
+                .patientName("Query Patient 1")
+                .build());
+
+        assertEquals(0, statistics.getEntityStatistics(Doctor.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(ConsultingRoom.class.getName()).getLoadCount());
+    }
+
+    private void assertNoEntityLoaded() {
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+
+    private Appointment book(Long doctorId, Long consultingRoomId, LocalDateTime time, String patientName) {
+        return appointmentService.createAppointment(AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build());
+    }
+}
@@ -0,0 +1,71 @@
+package com.olvera.hospital.controller;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.service.IAppointmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Subscribes to a doctor's schedule and checks that the changes committed to it, and only those, are pushed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentControllerSubscriptionTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2036, 9, 8, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Test
+    void committedChangesOfTheScheduleArePushed() throws Exception {
+        MvcResult subscription = mockMvc.perform(get("/api/appointment/subscribe")
+                        .param("doctorId", "2")
+                        .param("consultationDate", "2036-09-08"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = subscription.getResponse();
+
+        book(3L, 3L, DAY.withHour(9), "Unfollowed Patient");
+        Appointment followed = book(2L, 2L, DAY.withHour(9), "Followed Patient");
+        appointmentService.cancelAppointment(followed.getId());
+
+        String events = awaitContent(response, "event:cancelled");
+        assertTrue(events.contains("event:created"));
+        assertTrue(events.contains("\"patientName\":\"Followed Patient\""));
+        assertFalse(events.contains("Unfollowed Patient"));
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!response.getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return response.getContentAsString();
+    }
+
+    private Appointment book(Long doctorId, Long consultingRoomId, LocalDateTime time, String patientName) {
+        return appointmentService.createAppointment(AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build());
+    }
+}
@@ -0,0 +1,90 @@
+package com.olvera.hospital.encoding;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AppointmentBinaryEncoderTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2031, 6, 2, 9, 0);
+
+    @Test
+    void appointmentsRoundTrip() throws IOException {
+        List<AppointmentDto> appointments = new ArrayList<>(List.of(
+                appointment(1, TIME, "Ana"),
+                appointment(300, TIME.minusYears(70).withSecond(59).withNano(1), "José Nuñez"),
+                appointment(Long.MAX_VALUE, TIME.plusMinutes(30), "Ana"),
+                appointment(4, TIME.plusMinutes(30), "😀 emoji, and a lone \uD800 surrogate"),
+                appointment(5, TIME.plusHours(1), "x".repeat(20_000))));
+        // Enough records to fill the buffer many times over, with a name repeated every hundred
+        for (int i = 0; i < 10_000; i++) {
+            appointments.add(appointment(100 + i, TIME.plusDays(i / 8).plusHours(i % 8), "Patient " + i % 100));
+        }
+
+        List<AppointmentDto> decoded = decode(encode(appointments));
+
+        List<AppointmentDto> expected = new ArrayList<>(appointments);
+        expected.set(3, appointment(4, TIME.plusMinutes(30), "😀 emoji, and a lone ? surrogate"));
+        assertEquals(expected, decoded);
+    }
+
+    @Test
+    void recordsAreFewBytesOnceNamesAreKnown() throws IOException {
+        byte[] first = encode(List.of(appointment(1, TIME, "Patient")));
+        byte[] second = encode(List.of(appointment(1, TIME, "Patient"), appointment(2, TIME.plusMinutes(30), "Patient")));
+
+        // Tag, three one-byte IDs, a one-byte time delta and a name reference
+        assertEquals(6, second.length - first.length);
+    }
+
+    @Test
+    void streamCutShortIsReported() throws IOException {
+        byte[] encoded = encode(List.of(appointment(1, TIME, "Patient")));
+
+        assertThrows(EOFException.class, () -> decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IOException.class, () -> decode("[{\"id\":1}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] encode(List<AppointmentDto> appointments) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AppointmentBinaryEncoder encoder = new AppointmentBinaryEncoder(out);
+        for (AppointmentDto appointment : appointments) {
+            encoder.write(appointment);
+        }
+        encoder.finish();
+        return out.toByteArray();
+    }
+
+    private static List<AppointmentDto> decode(byte[] encoded) throws IOException {
+        AppointmentBinaryDecoder decoder = new AppointmentBinaryDecoder(new ByteArrayInputStream(encoded));
+        List<AppointmentDto> appointments = new ArrayList<>();
+        for (AppointmentDto appointment = decoder.next(); appointment != null; appointment = decoder.next()) {
+            appointments.add(appointment);
+        }
+        assertNull(decoder.next());
+        return appointments;
+    }
+
+    private static AppointmentDto appointment(long id, LocalDateTime time, String patientName) {
+        return AppointmentDto.builder()
+                .id(id)
+                .doctorId(id % 50 + 1)
+                .consultingRoomId(id % 40 + 1)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build();
+    }
+}
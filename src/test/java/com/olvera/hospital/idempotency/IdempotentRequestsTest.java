@@ -0,0 +1,74 @@
+package com.olvera.hospital.idempotency;
+
+import com.olvera.hospital.exception.IdempotencyKeyReusedException;
+import com.olvera.hospital.exception.ResourceAlreadyExistsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotentRequestsTest {
+
+    private final IdempotentRequests idempotentRequests = new IdempotentRequests(
+            new IdempotencyProperties(100, Duration.ofHours(1)), new SimpleMeterRegistry());
+
+    @Test
+    void concurrentDuplicatesShareTheFirstExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<IdempotentRequests.Outcome<Integer>> first = executor.submit(() ->
+                    idempotentRequests.execute("key", "request", () -> {
+                        started.countDown();
+                        release.join();
+                        return executions.incrementAndGet();
+                    }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<IdempotentRequests.Outcome<Integer>> duplicate = executor.submit(() ->
+                    idempotentRequests.execute("key", "request", executions::incrementAndGet));
+            release.complete(null);
+
+            assertEquals(new IdempotentRequests.Outcome<>(1, false), first.get(5, TimeUnit.SECONDS));
+            assertEquals(new IdempotentRequests.Outcome<>(1, true), duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(new IdempotentRequests.Outcome<>(1, true),
+                    idempotentRequests.execute("key", "request", executions::incrementAndGet));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyUsedWithAnotherRequestIsRejected() {
+        idempotentRequests.execute("key", "request", () -> 1);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotentRequests.execute("key", "another request", () -> 2));
+    }
+
+    @Test
+    void failedRequestIsForgottenSoItsRetryRunsAgain() {
+        assertThrows(ResourceAlreadyExistsException.class, () -> idempotentRequests.execute("key", "request", () -> {
+            throw new ResourceAlreadyExistsException("The consulting room is already occupied at this time.");
+        }));
+
+        IdempotentRequests.Outcome<Integer> retry = idempotentRequests.execute("key", "request", () -> 2);
+        assertEquals(2, retry.value());
+        assertFalse(retry.replayed());
+    }
+}
@@ -0,0 +1,111 @@
+package com.olvera.hospital.journal;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.scheduling.OccupancyIndex;
+import com.olvera.hospital.scheduling.OccupancyIndexLoader;
+import com.olvera.hospital.service.IAppointmentService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A journal that drops an edit still books as many slots as the database, so only its inconsistency marker has the
+ * occupancy index rebuilt from the database on the next startup. The journals are created by hand, on a directory
+ * of their own, and fed the events of the bookings made through the service.
+ */
+@SpringBootTest
+class BookingJournalTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2038, 3, 1, 0, 0);
+
+    @TempDir
+    private Path directory;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void droppedEditHasTheIndexRebuiltFromTheDatabase() throws Exception {
+        // Not started: the one change the queue holds waits for the writer, and the next one is dropped
+        BookingJournal journal = open();
+        load(new OccupancyIndex(), journal);
+
+        AppointmentDto booked = AppointmentDto.builder()
+                .doctorId(2L)
+                .consultingRoomId(2L)
+                .consultationTime(DAY.withHour(9))
+                .patientName("Journaled Patient")
+                .build();
+        booked.setId(appointmentService.createAppointment(booked).getId());
+        journal.onAppointmentChanged(AppointmentChangedEvent.created(booked));
+
+        AppointmentDto moved = AppointmentDto.builder()
+                .doctorId(2L)
+                .consultingRoomId(2L)
+                .consultationTime(DAY.withHour(11))
+                .patientName("Journaled Patient")
+                .build();
+        try {
+            moved = appointmentService.editAppointment(booked.getId(), moved);
+            journal.onAppointmentChanged(AppointmentChangedEvent.edited(booked, moved));
+            assertTrue(journal.bookedSlotsFrom(LocalDate.now()).isEmpty());
+
+            journal.start();
+            journal.close();
+
+            BookingJournal restarted = open();
+            try {
+                // As many slots as the database, but with the appointment at its old time
+                assertTrue(restarted.bookedSlotsFrom(LocalDate.now()).isEmpty());
+
+                OccupancyIndex occupancyIndex = new OccupancyIndex();
+                load(occupancyIndex, restarted);
+
+                assertTrue(occupancyIndex.isRoomFree(2L, DAY.withHour(9)));
+                assertFalse(occupancyIndex.isRoomFree(2L, DAY.withHour(11)));
+                assertEquals(DAY.withHour(11), restarted.bookedSlotsFrom(LocalDate.now()).orElseThrow().stream()
+                        .filter(slot -> slot.appointmentId() == booked.getId())
+                        .findFirst().orElseThrow()
+                        .consultationTime());
+            } finally {
+                restarted.close();
+            }
+        } finally {
+            appointmentService.cancelAppointment(booked.getId());
+        }
+    }
+
+    private BookingJournal open() throws IOException {
+        return new BookingJournal(new JournalProperties(true, directory, DataSize.ofMegabytes(1), 1,
+                Duration.ofMillis(10)));
+    }
+
+    private void load(OccupancyIndex occupancyIndex, BookingJournal journal) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("bookingJournal", journal));
+        new OccupancyIndexLoader(occupancyIndex, appointmentRepository, beans.getBeanProvider(BookingJournal.class),
+                transactionManager).afterSingletonsInstantiated();
+    }
+}
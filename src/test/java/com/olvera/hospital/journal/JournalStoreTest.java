@@ -0,0 +1,181 @@
+package com.olvera.hospital.journal;
+
+import com.olvera.hospital.util.AppointmentChangeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalStoreTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 5, 6, 9, 0);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void recordsAreReplayedInOrderAcrossSegments() throws IOException {
+        List<JournalRecord> appended = new ArrayList<>();
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            for (long id = 1; id <= 3_000; id++) {
+                JournalRecord record = record(id % 3 == 0 ? AppointmentChangeType.CANCELLED
+                        : AppointmentChangeType.CREATED, id);
+                store.append(record);
+                appended.add(record);
+            }
+            assertTrue(store.segment() > 1);
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (JournalStore store = open(new ArrayList<>(), replayed)) {
+            assertTrue(store.isConsistent());
+        }
+        assertEquals(appended, replayed);
+    }
+
+    @Test
+    void snapshotCompactsTheSegmentsItCovers() throws IOException {
+        Map<Long, JournalSlot> booked = new HashMap<>();
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            long id = 1;
+            while (!store.append(record(AppointmentChangeType.CREATED, id))) {
+                booked.put(id, record(AppointmentChangeType.CREATED, id).slot());
+                id++;
+            }
+            store.writeSnapshot(store.segment() - 1, booked.values());
+            // The record that sealed the segment comes after the snapshot
+            store.append(record(AppointmentChangeType.CANCELLED, 1));
+        }
+
+        List<JournalSlot> snapshot = new ArrayList<>();
+        List<JournalRecord> replayed = new ArrayList<>();
+        open(snapshot, replayed).close();
+
+        assertEquals(booked.size(), snapshot.size());
+        assertEquals(List.of(record(AppointmentChangeType.CREATED, booked.size() + 1),
+                record(AppointmentChangeType.CANCELLED, 1)), replayed);
+        assertEquals(List.of("segment-0000000000000000000.log"), fileNames(directory.resolve(JournalStore.AUDIT_DIRECTORY)));
+    }
+
+    @Test
+    void tornRecordAtTheEndIsDroppedAndOverwritten() throws IOException {
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            store.append(record(AppointmentChangeType.CREATED, 1));
+            store.append(record(AppointmentChangeType.CREATED, 2));
+        }
+        Path segment = directory.resolve("segment-0000000000000000000.log");
+        // Segment header, then the frame of the first record, then the frame header of the second
+        long secondPayload = 8 + 8 + payloadLength(record(AppointmentChangeType.CREATED, 1)) + 8;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(secondPayload + 3);
+            file.write(0xFF);
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (JournalStore store = open(new ArrayList<>(), replayed)) {
+            assertTrue(store.isConsistent());
+            store.append(record(AppointmentChangeType.CREATED, 3));
+        }
+        assertEquals(List.of(record(AppointmentChangeType.CREATED, 1)), replayed);
+
+        replayed.clear();
+        open(new ArrayList<>(), replayed).close();
+        assertEquals(List.of(record(AppointmentChangeType.CREATED, 1), record(AppointmentChangeType.CREATED, 3)),
+                replayed);
+    }
+
+    @Test
+    void damageBeforeTheLastSegmentMakesTheJournalInconsistent() throws IOException {
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            store.append(record(AppointmentChangeType.CREATED, 1));
+            store.roll();
+            store.append(record(AppointmentChangeType.CREATED, 2));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(
+                directory.resolve("segment-0000000000000000000.log").toFile(), "rw")) {
+            file.seek(20);
+            file.write(0xFF);
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (JournalStore store = open(new ArrayList<>(), replayed)) {
+            assertFalse(store.isConsistent());
+        }
+        assertTrue(replayed.isEmpty());
+    }
+
+    @Test
+    void missedChangeKeepsTheJournalInconsistentUntilMarkedConsistent() throws IOException {
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            store.append(record(AppointmentChangeType.CREATED, 1));
+            store.markInconsistent();
+            // A snapshot of what the journal holds does not bring the missed change back
+            store.writeSnapshot(store.roll(), List.of(record(AppointmentChangeType.CREATED, 1).slot()));
+            assertFalse(store.isConsistent());
+        }
+
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            assertFalse(store.isConsistent());
+            store.markConsistent();
+        }
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            assertTrue(store.isConsistent());
+        }
+    }
+
+    @Test
+    void journalThatWasNotClosedIsInconsistentUntilMarkedConsistent() throws IOException {
+        // Left open, as when the process is killed with changes still queued
+        JournalStore crashed = open(new ArrayList<>(), new ArrayList<>());
+        crashed.append(record(AppointmentChangeType.CREATED, 1));
+        crashed.force();
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (JournalStore store = open(new ArrayList<>(), replayed)) {
+            assertEquals(1, replayed.size());
+            assertFalse(store.isConsistent());
+        }
+        // Closing cleanly does not bring the lost changes back
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            assertFalse(store.isConsistent());
+            store.markConsistent();
+        }
+        try (JournalStore store = open(new ArrayList<>(), new ArrayList<>())) {
+            assertTrue(store.isConsistent());
+        }
+    }
+
+    private JournalStore open(List<JournalSlot> snapshot, List<JournalRecord> records) throws IOException {
+        return JournalStore.open(directory, SEGMENT_SIZE, snapshot::add, records::add);
+    }
+
+    private static JournalRecord record(AppointmentChangeType type, long id) {
+        return new JournalRecord(type, 1_700_000_000_000L + id, new JournalSlot(id, id % 7, id % 5,
+                MONDAY.plusMinutes(30 * id), "Journaled Patient " + id));
+    }
+
+    private static int payloadLength(JournalRecord record) {
+        return 1 + 8 + 4 * 8 + 2 + record.slot().patientName().length();
+    }
+
+    private static List<String> fileNames(Path path) throws IOException {
+        try (Stream<Path> files = Files.list(path)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.olvera.hospital.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test of {@code AppointmentController} over HTTP, on a random port and the in-memory database.
+ * Excluded from the regular build; run it with {@code mvn -Pload-test test} and tune it with the
+ * {@code load.*} properties of {@link LoadTestSettings}. Every run is written to {@code target/load-test/<run>.json};
+ * pass an earlier one as {@code -Dload.baseline=target/load-test/<run>.json} to see what changed.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        // Every virtual user comes from the same address: the load test measures the service, not the limiter
+        "hospital.admission.enabled=false",
+        "logging.level.com.olvera.hospital.service=WARN",
+        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF"
+})
+class AppointmentLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void appointmentEndpointsUnderLoad() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        LoadReport report = new LoadGenerator(URI.create("http://localhost:" + port), settings).run();
+
+        log.info("Load test results\n{}", report.format());
+        Path file = report.write(Path.of("target", "load-test"));
+        log.info("Report written to {}", file);
+        if (settings.baseline() != null) {
+            log.info("\n{}", report.compareWith(LoadReport.read(Path.of(settings.baseline()))));
+        }
+
+        assertTrue(report.operations().stream().allMatch(result -> result.successful() > 0),
+                "Every operation should succeed at least once");
+    }
+}
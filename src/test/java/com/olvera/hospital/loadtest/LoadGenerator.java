@@ -0,0 +1,313 @@
+package com.olvera.hospital.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a weighted mix of {@link LoadOperation}s against a running application from a fixed number of clients.
+ * Doctors and rooms are picked with a Zipf distribution so a few of them take most of the traffic, which is
+ * where the booking path contends. Edits and cancellations work on appointments the run has created.
+ * <p>
+ * Without a target rate every client sends its next request as soon as the previous one returns. With a rate,
+ * requests are due at fixed intervals and latency is measured from the time a request was due, so a stalled
+ * server is charged for the requests that queued up behind the stall.
+ */
+public class LoadGenerator {
+
+    private static final int DOCTORS = 5;
+
+    private static final int CONSULTING_ROOMS = 5;
+
+    private static final LocalTime OPENING_TIME = LocalTime.of(8, 0);
+
+    private static final int SLOTS_PER_DAY = 20;
+
+    private static final int SLOT_MINUTES = 30;
+
+    private final URI baseUri;
+
+    private final LoadTestSettings settings;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ConcurrentLinkedDeque<Long> appointmentIds = new ConcurrentLinkedDeque<>();
+
+    private final LoadOperation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private final double[] doctorPopularity;
+
+    private final double[] roomPopularity;
+
+    private final LocalDate firstDay = LocalDate.now().plusDays(1);
+
+    public LoadGenerator(URI baseUri, LoadTestSettings settings) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.operations = settings.mix().keySet().toArray(LoadOperation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.doctorPopularity = zipf(DOCTORS, settings.skew());
+        this.roomPopularity = zipf(CONSULTING_ROOMS, settings.skew());
+    }
+
+    public LoadReport run() throws InterruptedException {
+        runPhase(settings.warmupSeconds(), settings.seed() - 1);
+
+        Instant startedAt = Instant.now();
+        long started = System.nanoTime();
+        List<Client> clients = runPhase(settings.durationSeconds(), settings.seed());
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        List<LoadReport.OperationResult> results = new ArrayList<>();
+        for (LoadOperation operation : LoadOperation.values()) {
+            Samples merged = new Samples();
+            long[] statuses = new long[3];
+            for (Client client : clients) {
+                Samples samples = client.samples.get(operation);
+                merged.addAll(samples);
+                for (int i = 0; i < statuses.length; i++) {
+                    statuses[i] += samples.statuses[i];
+                }
+            }
+            if (merged.size > 0) {
+                results.add(merged.result(operation, seconds, statuses));
+            }
+        }
+        return new LoadReport(settings.run(), startedAt, settings, seconds, results);
+    }
+
+    private List<Client> runPhase(int seconds, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Client> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < settings.clients(); i++) {
+            Client client = new Client(new SplittableRandom(seed * 31 + i), deadline);
+            clients.add(client);
+            threads.add(new Thread(client, "load-client-" + i));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return clients;
+    }
+
+    private final class Client implements Runnable {
+
+        private final SplittableRandom random;
+
+        private final long deadline;
+
+        private final Map<LoadOperation, Samples> samples = new EnumMap<>(LoadOperation.class);
+
+        private Client(SplittableRandom random, long deadline) {
+            this.random = random;
+            this.deadline = deadline;
+            for (LoadOperation operation : LoadOperation.values()) {
+                samples.put(operation, new Samples());
+            }
+        }
+
+        @Override
+        public void run() {
+            long interval = settings.rate() > 0 ? 1_000_000_000L * settings.clients() / settings.rate() : 0;
+            long due = System.nanoTime() + (interval > 0 ? random.nextLong(interval) : 0);
+
+            while (due < deadline) {
+                if (interval > 0) {
+                    LockSupport.parkNanos(due - System.nanoTime());
+                } else {
+                    due = System.nanoTime();
+                }
+
+                LoadOperation operation = nextOperation();
+                int status = send(operation);
+                samples.get(operation).add(System.nanoTime() - due, status);
+
+                due += interval;
+            }
+        }
+
+        private LoadOperation nextOperation() {
+            int weight = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            LoadOperation operation = operations[0];
+            for (int i = 0; i < operations.length; i++) {
+                if (weight < cumulativeWeights[i]) {
+                    operation = operations[i];
+                    break;
+                }
+            }
+            // Edits and cancellations need an appointment: create one first
+            return (operation == LoadOperation.EDIT || operation == LoadOperation.CANCEL) && appointmentIds.isEmpty()
+                    ? LoadOperation.CREATE : operation;
+        }
+
+        private int send(LoadOperation operation) {
+            try {
+                return switch (operation) {
+                    case CREATE -> create();
+                    case FILTER -> filter();
+                    case EDIT -> edit();
+                    case CANCEL -> cancel();
+                };
+            } catch (IOException e) {
+                return 599;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 599;
+            }
+        }
+
+        private int create() throws IOException, InterruptedException {
+            HttpResponse<String> response = httpClient.send(request("/create")
+                    .POST(HttpRequest.BodyPublishers.ofString(appointment()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 201) {
+                appointmentIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+            return response.statusCode();
+        }
+
+        private int filter() throws IOException, InterruptedException {
+            return httpClient.send(request("/filter?doctorId=" + pick(doctorPopularity) + "&consultationDate="
+                    + firstDay.plusDays(random.nextInt(settings.days())))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private int edit() throws IOException, InterruptedException {
+            Long id = appointmentIds.pollFirst();
+            if (id == null) {
+                return create();
+            }
+            try {
+                return httpClient.send(request("/edit/" + id)
+                        .PUT(HttpRequest.BodyPublishers.ofString(appointment()))
+                        .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } finally {
+                appointmentIds.addLast(id);
+            }
+        }
+
+        private int cancel() throws IOException, InterruptedException {
+            Long id = appointmentIds.pollLast();
+            if (id == null) {
+                return create();
+            }
+            return httpClient.send(request("/cancel/" + id)
+                    .DELETE()
+                    .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve("/api/appointment" + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json");
+        }
+
+        private String appointment() throws IOException {
+            LocalDateTime time = firstDay.plusDays(random.nextInt(settings.days()))
+                    .atTime(OPENING_TIME)
+                    .plusMinutes((long) SLOT_MINUTES * random.nextInt(SLOTS_PER_DAY));
+            return objectMapper.writeValueAsString(Map.of(
+                    "doctorId", pick(doctorPopularity),
+                    "consultingRoomId", pick(roomPopularity),
+                    "consultationTime", time.toString(),
+                    "patientName", "Load Patient " + random.nextInt(settings.patients())));
+        }
+
+        private long pick(double[] cumulativePopularity) {
+            int index = Arrays.binarySearch(cumulativePopularity, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1L;
+        }
+    }
+
+    /**
+     * Cumulative Zipf distribution over {@code n} items: item {@code k} is picked with a probability
+     * proportional to {@code 1 / k^exponent}.
+     */
+    private static double[] zipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int k = 1; k <= n; k++) {
+            total += 1 / Math.pow(k, exponent);
+            cumulative[k - 1] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= total;
+        }
+        cumulative[n - 1] = 1.0;
+        return cumulative;
+    }
+
+    /**
+     * Latencies of one operation seen by one client, with counts of 2xx, 4xx and 5xx responses.
+     */
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+
+        private int size;
+
+        private final long[] statuses = new long[3];
+
+        void add(long latency, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+            statuses[status < 400 ? 0 : status < 500 ? 1 : 2]++;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, size + other.size);
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+        }
+
+        LoadReport.OperationResult result(LoadOperation operation, double seconds, long[] statuses) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new LoadReport.OperationResult(operation, size, size / seconds, statuses[0], statuses[1],
+                    statuses[2], percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted[size - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.olvera.hospital.loadtest;
+
+/**
+ * The {@code AppointmentController} calls the load test sends.
+ */
+public enum LoadOperation {
+    CREATE,
+    FILTER,
+    EDIT,
+    CANCEL
+}
@@ -0,0 +1,83 @@
+package com.olvera.hospital.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of a load test run: throughput, status classes and latency percentiles per operation.
+ */
+public record LoadReport(String run, Instant startedAt, LoadTestSettings settings, double durationSeconds,
+                         List<OperationResult> operations) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Results of one operation. Latencies are in milliseconds and include rejected and failed requests.
+     */
+    public record OperationResult(LoadOperation operation, long requests, double throughput, long successful,
+                                  long rejected, long failed, double p50, double p99, double p999, double max) {
+    }
+
+    public static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(run + ".json");
+        MAPPER.writeValue(file.toFile(), this);
+        return file;
+    }
+
+    public String format() {
+        StringBuilder table = new StringBuilder(String.format("Run %s: %d clients, %s, %.0f s%n", run,
+                settings.clients(), settings.rate() > 0 ? settings.rate() + " req/s" : "closed loop", durationSeconds));
+        table.append(String.format("%-8s %9s %10s %8s %8s %8s %9s %9s %9s %9s%n", "op", "requests", "req/s",
+                "2xx", "4xx", "5xx", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (OperationResult result : operations) {
+            table.append(String.format("%-8s %9d %10.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                    result.operation().name().toLowerCase(), result.requests(), result.throughput(),
+                    result.successful(), result.rejected(), result.failed(),
+                    result.p50(), result.p99(), result.p999(), result.max()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Relative change of every operation against an earlier run: positive throughput and negative
+     * latency changes are improvements.
+     */
+    public String compareWith(LoadReport baseline) {
+        Map<LoadOperation, OperationResult> before = baseline.operations().stream()
+                .collect(Collectors.toMap(OperationResult::operation, Function.identity()));
+
+        StringBuilder table = new StringBuilder(String.format("Run %s compared with %s%n", run, baseline.run()));
+        table.append(String.format("%-8s %10s %9s %9s %9s%n", "op", "req/s", "p50", "p99", "p999"));
+        for (OperationResult result : operations) {
+            OperationResult previous = before.get(result.operation());
+            if (previous == null) {
+                continue;
+            }
+            table.append(String.format("%-8s %10s %9s %9s %9s%n", result.operation().name().toLowerCase(),
+                    change(previous.throughput(), result.throughput()), change(previous.p50(), result.p50()),
+                    change(previous.p99(), result.p99()), change(previous.p999(), result.p999())));
+        }
+        return table.toString();
+    }
+
+    private static String change(double before, double after) {
+        return before == 0 ? "n/a" : String.format("%+.1f%%", (after - before) * 100 / before);
+    }
+}
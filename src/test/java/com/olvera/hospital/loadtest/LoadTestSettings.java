@@ -0,0 +1,52 @@
+package com.olvera.hospital.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test knobs, read from system properties so they can be passed on the Maven command line,
+ * e.g. {@code mvn -Pload-test test -Dload.clients=64 -Dload.mix=create=70,filter=30}.
+ *
+ * @param run             name of the run, used for the report file
+ * @param clients         concurrent clients
+ * @param warmupSeconds   unrecorded warm-up before the measurement
+ * @param durationSeconds length of the measurement
+ * @param rate            total requests per second to aim for, or 0 to let every client send as fast as it can
+ * @param mix             relative weight of every operation
+ * @param skew            Zipf exponent of doctor and room popularity: 0 is uniform, higher piles onto a few
+ * @param days            number of days, from tomorrow, that bookings are spread over
+ * @param patients        number of distinct patients
+ * @param seed            random seed, so that two runs send the same traffic
+ * @param baseline        report of an earlier run to compare with, or null
+ */
+public record LoadTestSettings(String run, int clients, int warmupSeconds, int durationSeconds, int rate,
+                               Map<LoadOperation, Integer> mix, double skew, int days, int patients, long seed,
+                               String baseline) {
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                System.getProperty("load.run", "run-" + System.currentTimeMillis()),
+                Integer.getInteger("load.clients", 16),
+                Integer.getInteger("load.warmupSeconds", 5),
+                Integer.getInteger("load.durationSeconds", 30),
+                Integer.getInteger("load.rate", 0),
+                parseMix(System.getProperty("load.mix", "create=40,filter=40,edit=10,cancel=10")),
+                Double.parseDouble(System.getProperty("load.skew", "1.1")),
+                Integer.getInteger("load.days", 5),
+                Integer.getInteger("load.patients", 500),
+                Long.getLong("load.seed", 42L),
+                System.getProperty("load.baseline"));
+    }
+
+    static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Traffic mix entries look like create=40, got: " + entry);
+            }
+            weights.put(LoadOperation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+}
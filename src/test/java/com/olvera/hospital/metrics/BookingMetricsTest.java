@@ -0,0 +1,81 @@
+package com.olvera.hospital.metrics;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import com.olvera.hospital.scheduling.BookingConflict;
+import com.olvera.hospital.scheduling.OccupancyIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private OccupancyIndex occupancyIndex;
+
+    private BookingMetrics bookingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        occupancyIndex = new OccupancyIndex();
+        occupancyIndex.rebuild(LocalDate.now(), Stream.empty());
+        bookingMetrics = new BookingMetrics(registry, occupancyIndex, null);
+    }
+
+    @Test
+    void timesEachStepBySource() {
+        assertEquals("free", bookingMetrics.time(BookingStep.ROOM_CONFLICT, BookingMetrics.INDEX, () -> "free"));
+        bookingMetrics.time(BookingStep.ROOM_CONFLICT, BookingMetrics.INDEX, () -> "free");
+        assertThrows(IllegalStateException.class, () -> bookingMetrics.time(BookingStep.SAVE, BookingMetrics.DATABASE,
+                () -> {
+                    throw new IllegalStateException("constraint violated");
+                }));
+
+        assertEquals(2, registry.get(BookingMetrics.STEP_TIMER)
+                .tags("step", "room_conflict", "source", "index").timer().count());
+        // Timed even though it threw
+        assertEquals(1, registry.get(BookingMetrics.STEP_TIMER)
+                .tags("step", "save", "source", "database").timer().count());
+        assertEquals(2, registry.find(BookingMetrics.STEP_TIMER).timers().size());
+    }
+
+    @Test
+    void countsRejectionsByReason() {
+        bookingMetrics.rejected(BookingConflict.ROOM_OCCUPIED);
+        bookingMetrics.rejected(BookingConflict.ROOM_OCCUPIED);
+        bookingMetrics.rejected("doctor_not_found");
+
+        assertEquals(2, registry.get(BookingMetrics.REJECTIONS_COUNTER).tag("reason", "room_occupied").counter().count());
+        assertEquals(1, registry.get(BookingMetrics.REJECTIONS_COUNTER).tag("reason", "doctor_not_found").counter()
+                .count());
+    }
+
+    @Test
+    void doctorGetsAGaugeWithTheirFirstBooking() {
+        LocalDateTime time = LocalDate.now().atTime(23, 0);
+        AppointmentDto booked = AppointmentDto.builder()
+                .doctorId(42L)
+                .consultingRoomId(1L)
+                .consultationTime(time)
+                .patientName("Gauged Patient")
+                .build();
+        assertNull(registry.find(BookingMetrics.DOCTOR_SLOTS_TODAY_GAUGE).tag("doctor_id", "42").gauge());
+
+        occupancyIndex.add(42L, 1L, "Gauged Patient", time);
+        bookingMetrics.onAppointmentChanged(AppointmentChangedEvent.created(booked));
+        bookingMetrics.onAppointmentChanged(AppointmentChangedEvent.edited(booked, booked));
+
+        assertEquals(1, registry.find(BookingMetrics.DOCTOR_SLOTS_TODAY_GAUGE).gauges().size());
+        assertEquals(1, registry.get(BookingMetrics.DOCTOR_SLOTS_TODAY_GAUGE).tag("doctor_id", "42").gauge().value());
+    }
+}
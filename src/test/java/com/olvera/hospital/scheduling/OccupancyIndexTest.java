@@ -0,0 +1,93 @@
+package com.olvera.hospital.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccupancyIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private OccupancyIndex occupancyIndex;
+
+    @BeforeEach
+    void setUp() {
+        occupancyIndex = new OccupancyIndex();
+        occupancyIndex.rebuild(DAY, Stream.empty());
+    }
+
+    @Test
+    void detectsRoomAndDoctorConflictsAtTheSameMinute() {
+        occupancyIndex.add(1L, 1L, "John Doe", DAY.atTime(10, 0));
+
+        assertEquals(BookingConflict.ROOM_OCCUPIED, occupancyIndex.check(2L, 1L, "Jane Doe", DAY.atTime(10, 0)));
+        assertEquals(BookingConflict.DOCTOR_BOOKED, occupancyIndex.check(1L, 2L, "Jane Doe", DAY.atTime(10, 0)));
+        assertEquals(BookingConflict.NONE, occupancyIndex.check(1L, 1L, "Jane Doe", DAY.atTime(10, 1)));
+    }
+
+    @Test
+    void enforcesPatientSpacingAcrossWordBoundaries() {
+        occupancyIndex.add(1L, 1L, "John Doe", DAY.atTime(1, 4));
+
+        assertEquals(BookingConflict.PATIENT_TOO_CLOSE, occupancyIndex.check(2L, 2L, "John Doe", DAY.atTime(0, 0)));
+        assertEquals(BookingConflict.PATIENT_TOO_CLOSE, occupancyIndex.check(2L, 2L, "John Doe", DAY.atTime(3, 3)));
+        assertEquals(BookingConflict.NONE, occupancyIndex.check(2L, 2L, "John Doe", DAY.atTime(3, 4)));
+        assertEquals(BookingConflict.NONE, occupancyIndex.check(2L, 2L, "John Doe", DAY.plusDays(1).atTime(1, 4)));
+    }
+
+    @Test
+    void capsDoctorAppointmentsPerDay() {
+        for (int hour = 8; hour < 8 + BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY; hour++) {
+            occupancyIndex.add(1L, (long) hour, "Patient " + hour, DAY.atTime(hour, 0));
+        }
+
+        assertEquals(BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY, occupancyIndex.doctorAppointments(1L, DAY));
+        assertEquals(BookingConflict.DOCTOR_DAILY_LIMIT, occupancyIndex.check(1L, 99L, "Jane Doe", DAY.atTime(23, 0)));
+
+        occupancyIndex.remove(1L, 8L, "Patient 8", DAY.atTime(8, 0));
+        assertEquals(BookingConflict.NONE, occupancyIndex.check(1L, 99L, "Jane Doe", DAY.atTime(23, 0)));
+    }
+
+    @Test
+    void onlyCoversDaysFromTheHorizon() {
+        LocalDateTime before = DAY.minusDays(1).atTime(10, 0);
+        occupancyIndex.add(1L, 1L, "John Doe", before);
+
+        assertFalse(occupancyIndex.covers(before));
+        assertTrue(occupancyIndex.covers(DAY.atStartOfDay()));
+        assertEquals(0, occupancyIndex.doctorAppointments(1L, before.toLocalDate()));
+    }
+
+    @Test
+    void advancingTheHorizonDropsEarlierDays() {
+        occupancyIndex.add(1L, 1L, "John Doe", DAY.atTime(10, 0));
+        occupancyIndex.add(1L, 1L, "John Doe", DAY.plusDays(1).atTime(10, 0));
+
+        occupancyIndex.advanceHorizon(DAY.plusDays(1));
+
+        assertFalse(occupancyIndex.covers(DAY.atTime(10, 0)));
+        assertEquals(3, occupancyIndex.size());
+        assertEquals(0, occupancyIndex.doctorAppointments(1L, DAY));
+        assertEquals(1, occupancyIndex.doctorAppointments(1L, DAY.plusDays(1)));
+
+        // Never moved back
+        occupancyIndex.advanceHorizon(DAY);
+        assertFalse(occupancyIndex.covers(DAY.atTime(10, 0)));
+    }
+
+    @Test
+    void indexNotBuiltYetKeepsCoveringNothing() {
+        OccupancyIndex unbuilt = new OccupancyIndex();
+
+        unbuilt.advanceHorizon(DAY);
+
+        assertFalse(unbuilt.covers(DAY.plusYears(1).atStartOfDay()));
+    }
+}
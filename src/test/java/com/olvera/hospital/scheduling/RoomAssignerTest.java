@@ -0,0 +1,52 @@
+package com.olvera.hospital.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RoomAssignerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private final RoomAssigner roomAssigner = new RoomAssigner(List.of(1L, 2L, 3L), 30);
+
+    @Test
+    void doctorsKeepTheirRoomThroughTheDay() {
+        roomAssigner.occupy(1L, 3L, DAY.atTime(8, 0));
+
+        assertEquals(1L, roomAssigner.assign(2L, DAY.atTime(8, 0)));
+        assertEquals(3L, roomAssigner.assign(1L, DAY.atTime(8, 30)));
+        assertEquals(1L, roomAssigner.assign(2L, DAY.atTime(8, 30)));
+        // A doctor new to the day takes a room already in use before opening another one
+        assertEquals(3L, roomAssigner.assign(4L, DAY.atTime(9, 0)));
+    }
+
+    @Test
+    void roomsAreHeldForASlot() {
+        roomAssigner.occupy(1L, 1L, DAY.atTime(8, 0));
+        roomAssigner.occupy(2L, 2L, DAY.atTime(8, 15));
+
+        assertEquals(3L, roomAssigner.assign(3L, DAY.atTime(8, 20)));
+        assertNull(roomAssigner.assign(4L, DAY.atTime(8, 29)));
+        assertEquals(1L, roomAssigner.assign(4L, DAY.atTime(8, 30)));
+        // Another day starts empty
+        assertEquals(1L, roomAssigner.assign(4L, DAY.plusDays(1).atTime(8, 20)));
+    }
+
+    @Test
+    void everyFreeRoomOfASlotIsAssigned() {
+        List<Long> assigned = new ArrayList<>();
+        for (long doctorId = 1; doctorId <= 4; doctorId++) {
+            assigned.add(roomAssigner.assign(doctorId, DAY.atTime(10, 0)));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), assigned.subList(0, 3));
+        assertNull(assigned.get(3));
+        assertEquals(1L, roomAssigner.assign(4L, DAY.atTime(10, 30)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.olvera.hospital.scheduling;
+
+import com.olvera.hospital.dto.AvailableSlotDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotFinderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private OccupancyIndex occupancyIndex;
+
+    private SlotFinder slotFinder;
+
+    @BeforeEach
+    void setUp() {
+        occupancyIndex = new OccupancyIndex();
+        occupancyIndex.rebuild(DAY, Stream.empty());
+        slotFinder = new SlotFinder(occupancyIndex, new SchedulingProperties(LocalTime.of(8, 0), LocalTime.of(18, 0), 30));
+    }
+
+    @Test
+    void skipsBookedDoctorsAndRooms() {
+        occupancyIndex.add(1L, 1L, "John Doe", DAY.atTime(8, 0));
+        occupancyIndex.add(3L, 2L, "Jane Doe", DAY.atTime(8, 0));
+
+        List<AvailableSlotDto> slots = slotFinder.findAvailableSlots(List.of(1L, 2L), List.of(1L, 2L, 3L), null,
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), 3);
+
+        assertEquals(List.of(
+                new AvailableSlotDto(2L, 3L, DAY.atTime(8, 0)),
+                new AvailableSlotDto(1L, 1L, DAY.atTime(8, 30)),
+                new AvailableSlotDto(2L, 2L, DAY.atTime(8, 30))
+        ), slots);
+    }
+
+    @Test
+    void suggestsEachRoomOnceAtATime() {
+        List<AvailableSlotDto> slots = slotFinder.findAvailableSlots(List.of(1L, 2L, 3L), List.of(1L, 2L), null,
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), 4);
+
+        // Two rooms for three doctors: a room taken by a suggestion is not suggested again at that time
+        assertEquals(List.of(
+                new AvailableSlotDto(1L, 1L, DAY.atTime(8, 0)),
+                new AvailableSlotDto(2L, 2L, DAY.atTime(8, 0)),
+                new AvailableSlotDto(1L, 1L, DAY.atTime(8, 30)),
+                new AvailableSlotDto(2L, 2L, DAY.atTime(8, 30))
+        ), slots);
+    }
+
+    @Test
+    void keepsPatientSpacingAndDoctorDailyLimit() {
+        for (int hour = 8; hour < 16; hour++) {
+            occupancyIndex.add(1L, 1L, "Patient " + hour, DAY.atTime(hour, 0));
+        }
+        occupancyIndex.add(2L, 2L, "John Doe", DAY.atTime(9, 0));
+
+        List<AvailableSlotDto> slots = slotFinder.findAvailableSlots(List.of(1L, 2L), List.of(3L), "John Doe",
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), 1);
+
+        assertEquals(List.of(new AvailableSlotDto(2L, 3L, DAY.atTime(11, 0))), slots);
+    }
+
+    @Test
+    void stopsAtTheEndOfTheRange() {
+        List<AvailableSlotDto> slots = slotFinder.findAvailableSlots(List.of(1L), List.of(1L), null,
+                DAY.atTime(17, 0), DAY.plusDays(1).atTime(8, 30), 100);
+
+        assertEquals(3, slots.size());
+        assertTrue(slots.stream().allMatch(slot -> slot.getConsultationTime().isBefore(DAY.plusDays(1).atTime(8, 30))));
+    }
+}
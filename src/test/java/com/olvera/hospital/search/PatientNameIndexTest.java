@@ -0,0 +1,87 @@
+package com.olvera.hospital.search;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.PatientMatchDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientNameIndexTest {
+
+    @Test
+    void findsPatientsByThePrefixesOfTheirWordsIgnoringCaseAndAccents() {
+        PatientNameIndex index = new PatientNameIndex(100, 100);
+        index.add(1L, "María García López");
+        index.add(2L, "Mario Gómez");
+        index.add(3L, "Ana Garcés");
+
+        assertEquals(List.of("Ana Garcés", "María García López"), names(index.search("garc", 10)));
+        assertEquals(List.of("María García López", "Mario Gómez"), names(index.search("MAR", 10)));
+        assertEquals(List.of("María García López"), names(index.search("mar gar", 10)));
+        assertEquals(List.of("María García López"), names(index.search("lopez, maria", 10)));
+        assertEquals(List.of("Ana Garcés"), names(index.search("gar", 1)));
+        assertTrue(index.search("gomez ana", 10).isEmpty());
+        assertTrue(index.search(" - ", 10).isEmpty());
+    }
+
+    @Test
+    void followsTheAppointmentsOfEachPatient() {
+        PatientNameIndex index = new PatientNameIndex(100, 100);
+        index.add(11L, "Ana Garcés");
+        index.add(10L, "Ana Garcés");
+        index.add(10L, "Ana Garcés");
+        assertEquals(List.of(new PatientMatchDto("Ana Garcés", List.of(10L, 11L))), index.search("ana", 10));
+
+        index.onAppointmentChanged(AppointmentChangedEvent.edited(appointment(10L, "Ana Garcés"),
+                appointment(10L, "Ana Garcés Ruiz")));
+        assertEquals(List.of(new PatientMatchDto("Ana Garcés", List.of(11L)),
+                new PatientMatchDto("Ana Garcés Ruiz", List.of(10L))), index.search("ana", 10));
+
+        index.onAppointmentChanged(AppointmentChangedEvent.cancelled(appointment(11L, "Ana Garcés")));
+        index.onAppointmentChanged(AppointmentChangedEvent.archived(appointment(10L, "Ana Garcés Ruiz")));
+        assertTrue(index.search("ana", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void stopsIndexingNewPatientsWhenFull() {
+        PatientNameIndex index = new PatientNameIndex(2, 100);
+        index.add(1L, "Ana Garcés");
+        index.add(2L, "Mario Gómez");
+        index.add(3L, "María García López");
+        index.add(4L, "Ana Garcés");
+
+        assertTrue(index.search("maria", 10).isEmpty());
+        assertEquals(List.of(1L, 4L), index.search("ana", 10).get(0).getAppointmentIds());
+
+        index.remove(2L, "Mario Gómez");
+        index.add(3L, "María García López");
+        assertEquals(List.of("María García López"), names(index.search("maria", 10)));
+    }
+
+    @Test
+    void holdsUpToTheMaximumAppointmentsOfAPatient() {
+        PatientNameIndex index = new PatientNameIndex(100, 5);
+        for (long id = 1; id <= 7; id++) {
+            index.add(id, "Ana Garcés");
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), index.search("ana", 10).get(0).getAppointmentIds());
+
+        index.remove(2L, "Ana Garcés");
+        index.remove(7L, "Ana Garcés");
+        index.add(6L, "Ana Garcés");
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L), index.search("ana", 10).get(0).getAppointmentIds());
+    }
+
+    private static List<String> names(List<PatientMatchDto> matches) {
+        return matches.stream().map(PatientMatchDto::getPatientName).toList();
+    }
+
+    private static AppointmentDto appointment(Long id, String patientName) {
+        return AppointmentDto.builder().id(id).patientName(patientName).build();
+    }
+}
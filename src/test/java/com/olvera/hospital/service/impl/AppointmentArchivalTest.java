@@ -0,0 +1,86 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.AppointmentHistoryDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.service.IAppointmentArchiveService;
+import com.olvera.hospital.service.IAppointmentService;
+import com.olvera.hospital.util.AppointmentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "hospital.archive.batch-size=2")
+class AppointmentArchivalTest {
+
+    private static final String PATIENT = "Archived Patient";
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private IAppointmentArchiveService appointmentArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cancelledAppointmentKeepsItsRowAndFreesItsSlot() {
+        AppointmentDto booking = AppointmentDto.builder()
+                .doctorId(3L)
+                .consultingRoomId(2L)
+                .consultationTime(LocalDateTime.of(2036, 6, 2, 11, 0))
+                .patientName("Cancelling Patient")
+                .build();
+        Appointment cancelled = appointmentService.createAppointment(booking);
+
+        assertTrue(appointmentService.cancelAppointment(cancelled.getId()));
+        assertEquals("CANCELLED", jdbcTemplate.queryForObject(
+                "SELECT status FROM appointment WHERE id = ?", String.class, cancelled.getId()));
+
+        Appointment rebooked = appointmentService.createAppointment(booking);
+        List<AppointmentDto> listed = appointmentService.filterAppointments(3L, null,
+                booking.getConsultationTime(), booking.getConsultationTime().plusHours(1),
+                PageRequest.of(0, 10, Sort.by("consultationTime"))).getContent();
+        assertEquals(List.of(rebooked.getId()), listed.stream().map(AppointmentDto::getId).toList());
+    }
+
+    @Test
+    void pastClosedAppointmentsMoveToTheArchiveInBatches() {
+        LocalDateTime past = LocalDateTime.of(2020, 1, 6, 9, 0);
+        insert(past, AppointmentStatus.COMPLETED);
+        insert(past.plusDays(1), AppointmentStatus.COMPLETED);
+        insert(past.plusDays(2), AppointmentStatus.COMPLETED);
+        insert(past.plusDays(3), AppointmentStatus.CANCELLED);
+        insert(past.plusDays(4), AppointmentStatus.CANCELLED);
+        insert(past.plusDays(5), AppointmentStatus.PENDING);
+        insert(LocalDate.now().minusDays(1).atTime(9, 0), AppointmentStatus.CANCELLED);
+
+        assertEquals(5, appointmentArchiveService.archivePastAppointments());
+
+        assertEquals(List.of("CANCELLED", "PENDING"), jdbcTemplate.queryForList(
+                "SELECT status FROM appointment WHERE patient_name = ? ORDER BY status", String.class, PATIENT));
+        List<AppointmentHistoryDto> history = appointmentArchiveService.findHistory(null, PATIENT, null, null,
+                PageRequest.of(0, 10, Sort.by("consultationTime"))).getContent();
+        assertEquals(List.of(AppointmentStatus.COMPLETED, AppointmentStatus.COMPLETED, AppointmentStatus.COMPLETED,
+                AppointmentStatus.CANCELLED, AppointmentStatus.CANCELLED),
+                history.stream().map(AppointmentHistoryDto::getStatus).toList());
+        assertEquals(past, history.get(0).getConsultationTime());
+    }
+
+    private void insert(LocalDateTime consultationTime, AppointmentStatus status) {
+        jdbcTemplate.update("INSERT INTO appointment (doctor_id, consulting_room_id, consultation_time, patient_name, status) " +
+                "VALUES (1, 1, ?, ?, ?)", Timestamp.valueOf(consultationTime), PATIENT, status.name());
+    }
+}
@@ -0,0 +1,104 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.exception.ResourceAlreadyExistsException;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.scheduling.BookingConflict;
+import com.olvera.hospital.service.IAppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Counts the JDBC statements behind a booking: the booking rules are one query, run in the same transaction as the
+ * insert. The appointments are deleted afterwards, since
+ * they are past appointments the archival test would count.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentBookingStatementsTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2001, 3, 5, 0, 0);
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> booked = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void bookFirstAppointment() {
+        // Also loads the doctor and the room into the reference data caches
+        book(4L, 4L, DAY.withHour(9), "Statements Patient 1");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    void deleteAppointments() {
+        appointmentRepository.deleteAllById(booked);
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void bookingIsOneRuleQueryAndOneInsertInOneTransaction() {
+        book(4L, 4L, DAY.withHour(11), "Statements Patient 2");
+
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getTransactionCount());
+    }
+
+    @Test
+    void rulesAreCheckedInOrder() {
+        // Same room and doctor: the room is reported first
+        assertEquals(BookingConflict.ROOM_OCCUPIED.getMessage(), assertThrows(ResourceAlreadyExistsException.class,
+                () -> book(4L, 4L, DAY.withHour(9), "Statements Patient 3")).getMessage());
+        assertEquals(BookingConflict.DOCTOR_BOOKED.getMessage(), assertThrows(ResourceAlreadyExistsException.class,
+                () -> book(4L, 3L, DAY.withHour(9), "Statements Patient 3")).getMessage());
+        assertEquals(BookingConflict.PATIENT_TOO_CLOSE.getMessage(), assertThrows(IllegalArgumentException.class,
+                () -> book(5L, 3L, DAY.withHour(10), "Statements Patient 1")).getMessage());
+
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    private void book(Long doctorId, Long consultingRoomId, LocalDateTime time, String patientName) {
+        Appointment appointment = appointmentService.createAppointment(AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build());
+        booked.add(appointment.getId());
+    }
+}
@@ -0,0 +1,134 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.BulkAppointmentResultDto;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.scheduling.BookingConflict;
+import com.olvera.hospital.service.IAppointmentService;
+import com.olvera.hospital.util.BulkAppointmentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.olvera.hospital.util.BulkAppointmentStatus.CREATED;
+import static com.olvera.hospital.util.BulkAppointmentStatus.REJECTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Bulk requests validate every appointment against the ones before it in the batch, and report on each one at the
+ * position it had in the request. Every test books on its own day so the tests do not interfere through the shared
+ * database.
+ */
+@SpringBootTest
+class AppointmentBulkCreationTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2040, 6, 4, 0, 0);
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @MockitoSpyBean
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void conflictsWithinTheBatchAreRejected() {
+        LocalDateTime nine = DAY.withHour(9);
+
+        List<BulkAppointmentResultDto> results = appointmentService.createAppointments(List.of(
+                appointment(1L, 1L, nine, "Bulk Patient A"),
+                appointment(1L, 2L, nine, "Bulk Patient B"),
+                appointment(2L, 1L, nine, "Bulk Patient C"),
+                appointment(3L, 3L, nine.plusHours(1), "Bulk Patient A")));
+
+        assertEquals(List.of(CREATED, REJECTED, REJECTED, REJECTED), statuses(results));
+        assertEquals(Arrays.asList(null, BookingConflict.DOCTOR_BOOKED.getMessage(),
+                BookingConflict.ROOM_OCCUPIED.getMessage(), BookingConflict.PATIENT_TOO_CLOSE.getMessage()),
+                results.stream().map(BulkAppointmentResultDto::getMessage).toList());
+    }
+
+    @Test
+    void doctorDailyCapCountsTheBatch() {
+        LocalDateTime day = DAY.plusDays(1);
+        List<AppointmentDto> appointments = new ArrayList<>();
+        for (int n = 0; n < 9; n++) {
+            appointments.add(appointment(4L, (long) n % 5 + 1, day.withHour(8).plusMinutes(30L * n), "Capped Patient " + n));
+        }
+
+        List<BulkAppointmentResultDto> results = appointmentService.createAppointments(appointments);
+
+        assertEquals(8, statuses(results).stream().filter(CREATED::equals).count());
+        assertEquals(REJECTED, results.get(8).getStatus());
+        assertEquals(BookingConflict.DOCTOR_DAILY_LIMIT.getMessage(), results.get(8).getMessage());
+    }
+
+    @Test
+    void resultsKeepTheOrderOfAMixedBatch() {
+        LocalDateTime day = DAY.plusDays(2);
+        List<AppointmentDto> appointments = List.of(
+                appointment(1L, 1L, day.withHour(9), "Mixed Patient A"),
+                appointment(1L, 1L, day.withHour(10), null),
+                appointment(2L, 2L, day.withHour(9), "Mixed Patient B"),
+                appointment(999L, 3L, day.withHour(9), "Mixed Patient C"),
+                appointment(3L, 3L, day.withHour(12), "Mixed Patient D"),
+                appointment(4L, 1L, day.withHour(9), "Mixed Patient E"));
+
+        List<BulkAppointmentResultDto> results = appointmentService.createAppointments(appointments);
+
+        assertEquals(List.of(CREATED, REJECTED, CREATED, REJECTED, CREATED, REJECTED), statuses(results));
+        for (int i = 0; i < results.size(); i++) {
+            BulkAppointmentResultDto result = results.get(i);
+            assertEquals(i, result.getIndex());
+            if (result.getStatus() == CREATED) {
+                assertEquals(appointments.get(i).getPatientName(),
+                        appointmentRepository.findById(result.getAppointmentId()).orElseThrow().getPatientName());
+            }
+        }
+    }
+
+    @Test
+    void bookingMadeOutsideTheLocksRejectsOnlyTheRowsItClashesWith() {
+        LocalDateTime day = DAY.plusDays(3);
+        // Like a historical import, the booking is inserted without the booking locks, after the batch read the
+        // day as empty
+        doAnswer(invocation -> {
+            jdbcTemplate.update("insert into appointment (doctor_id, consulting_room_id, consultation_time, " +
+                    "patient_name, status) values (5, 5, ?, 'Imported Patient', 'PENDING')", day.withHour(9));
+            return List.of();
+        }).when(appointmentRepository).findBookedSlots(any(), any(), any(), any(), any());
+
+        List<BulkAppointmentResultDto> results = appointmentService.createAppointments(List.of(
+                appointment(5L, 4L, day.withHour(8), "Clashing Patient A"),
+                appointment(5L, 5L, day.withHour(9), "Clashing Patient B"),
+                appointment(4L, 4L, day.withHour(9), "Clashing Patient C")));
+
+        assertEquals(List.of(CREATED, REJECTED, CREATED), statuses(results));
+        assertEquals(List.of(0, 1, 2), results.stream().map(BulkAppointmentResultDto::getIndex).toList());
+        assertEquals("Doctor or consulting room is already booked at this time.", results.get(1).getMessage());
+    }
+
+    private static List<BulkAppointmentStatus> statuses(List<BulkAppointmentResultDto> results) {
+        return results.stream().map(BulkAppointmentResultDto::getStatus).toList();
+    }
+
+    private static AppointmentDto appointment(Long doctorId, Long consultingRoomId, LocalDateTime time,
+                                              String patientName) {
+        return AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentImportResultDto;
+import com.olvera.hospital.service.IAppointmentImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"hospital.import.chunk-size=3", "hospital.import.jdbc-batch-size=2"})
+class AppointmentImportTest {
+
+    @Autowired
+    private IAppointmentImportService appointmentImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteImportedAppointments() {
+        // The database is shared with the other tests, which count past appointments
+        jdbcTemplate.update("DELETE FROM appointment WHERE patient_name LIKE 'Imported%'");
+    }
+
+    @Test
+    void historicalRowsAreInsertedInChunksWithoutBookingValidations() {
+        AppointmentImportResultDto result = importCsv(true, """
+                \uFEFFconsultation_time,doctor,consulting_room,patient_name,status
+                2018-03-05T09:00,John Smith,101,"Imported, Patient",
+                2018-03-05 09:30,john anderson smith,101,"Imported, Patient",CANCELLED
+                2018-03-05T09:30,Laura Martinez,102,"Imported ""Quoted"" Patient",completed
+
+                2018-03-05T10:00,Jon Smith,101,Imported Patient,
+                2018-03-06T10:00,Laura Martinez,999,Imported Patient,
+                2999-01-01T10:00,Laura Martinez,102,Imported Patient,
+                2018-03-06T11:00,Laura Martinez,102,Imported Patient,PENDING
+                """);
+
+        assertEquals(4, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(
+                "line 6: No doctor named Jon Smith.",
+                "line 7: No consulting room named 999.",
+                "line 8: Historical appointments must be in the past."), result.getErrors());
+
+        // The same patient twice in half an hour: only live bookings are validated
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT doctor_id, consulting_room_id, " +
+                "patient_name, status FROM appointment WHERE patient_name LIKE 'Imported%' ORDER BY consultation_time, id");
+        assertEquals(List.of(
+                row(1, 1, "Imported, Patient", "COMPLETED"),
+                row(1, 1, "Imported, Patient", "CANCELLED"),
+                row(2, 2, "Imported \"Quoted\" Patient", "COMPLETED"),
+                row(2, 2, "Imported Patient", "PENDING")), rows);
+    }
+
+    @Test
+    void onlyTheRowsBreakingAConstraintAreRejected() {
+        AppointmentImportResultDto result = importCsv(true, """
+                doctor,consulting_room,consultation_time,patient_name
+                Michael Brown,201,2018-04-02T09:00,Imported Patient 1
+                Michael Brown,201,2018-04-02T09:00,Imported Patient 2
+                Michael Brown,201,2018-04-02T10:00,Imported Patient 3
+                Michael Brown,201,2018-04-02T11:00,Imported Patient 4
+                """);
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of("line 3: Not imported: the doctor or consulting room is already booked at this time."),
+                result.getErrors());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM appointment WHERE patient_name LIKE 'Imported%'", Integer.class));
+    }
+
+    @Test
+    void unclosedQuoteStopsTheImportAtItsLine() {
+        AppointmentImportResultDto result = importCsv(true, """
+                doctor,consulting_room,consultation_time,patient_name
+                Michael Brown,201,2018-04-03T09:00,Imported Patient 1
+                Michael Brown,201,2018-04-03T10:00,"Imported Patient 2
+                """ + "Michael Brown,201,2018-04-03T11:00,Imported Patient 3\n".repeat(50));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of("line 3: Field of the record starting on line 3 is longer than 1024 characters; "
+                + "is a quote left unclosed? The rest of the file was not imported."), result.getErrors());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM appointment WHERE patient_name LIKE 'Imported%'", Integer.class));
+    }
+
+    @Test
+    void liveRowsAreBookedWithTheBookingValidations() {
+        AppointmentImportResultDto result = importCsv(false, """
+                doctor,consulting_room,consultation_time,patient_name
+                Anna Taylor,202,2037-05-04T09:00,Imported Patient 1
+                Anna Taylor,301,2037-05-04T09:00,Imported Patient 2
+                Anna Taylor,202,2037-05-04T10:00,Imported Patient 3
+                """);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(List.of("PENDING", "PENDING"), jdbcTemplate.queryForList(
+                "SELECT status FROM appointment WHERE patient_name LIKE 'Imported%'", String.class));
+    }
+
+    private AppointmentImportResultDto importCsv(boolean historical, String csv) {
+        return appointmentImportService.importAppointments(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), historical);
+    }
+
+    private static Map<String, Object> row(long doctorId, long consultingRoomId, String patientName, String status) {
+        return Map.of("DOCTOR_ID", doctorId, "CONSULTING_ROOM_ID", consultingRoomId,
+                "PATIENT_NAME", patientName, "STATUS", status);
+    }
+}
@@ -0,0 +1,69 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.AppointmentPlanRequestDto;
+import com.olvera.hospital.dto.AppointmentPlanResultDto;
+import com.olvera.hospital.dto.BulkAppointmentResultDto;
+import com.olvera.hospital.scheduling.BookingConflict;
+import com.olvera.hospital.service.IAppointmentPlanningService;
+import com.olvera.hospital.service.IAppointmentService;
+import com.olvera.hospital.util.BulkAppointmentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AppointmentPlanningTest {
+
+    private static final LocalDate DAY = LocalDate.of(2039, 2, 7);
+
+    @Autowired
+    private IAppointmentPlanningService appointmentPlanningService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Test
+    void roomsArePlannedAroundBookingsAndRules() {
+        appointmentService.createAppointment(new AppointmentDto(null, 1L, 1L, DAY.atTime(9, 0), "Planned Booked"));
+
+        List<AppointmentPlanResultDto> plan = appointmentPlanningService.planConsultingRooms(Arrays.asList(
+                request(2L, DAY.atTime(9, 30), "Planned B"),
+                request(2L, DAY.atTime(9, 0), "Planned A"),
+                request(1L, DAY.atTime(9, 0), "Planned C"),
+                request(3L, DAY.atTime(10, 0), "Planned A"),
+                request(99L, DAY.atTime(9, 0), "Planned D"),
+                request(3L, DAY.atTime(9, 0), null),
+                request(1L, DAY.atTime(9, 30), "Planned E")));
+
+        // Doctor 2 starts the day in the first free room and keeps it; doctor 1 keeps the room of its booking
+        assertEquals(2L, plan.get(1).getConsultingRoomId());
+        assertEquals(2L, plan.get(0).getConsultingRoomId());
+        assertEquals(1L, plan.get(6).getConsultingRoomId());
+        assertEquals(BookingConflict.DOCTOR_BOOKED.getMessage(), plan.get(2).getMessage());
+        assertEquals(BookingConflict.PATIENT_TOO_CLOSE.getMessage(), plan.get(3).getMessage());
+        assertEquals("Doctor not found with the given input data doctorId: '99'", plan.get(4).getMessage());
+        assertTrue(plan.get(5).getMessage().contains("required"));
+
+        // The planned appointments can be booked as they are
+        List<AppointmentDto> planned = plan.stream()
+                .filter(result -> result.getConsultingRoomId() != null)
+                .map(result -> new AppointmentDto(null, result.getDoctorId(), result.getConsultingRoomId(),
+                        result.getConsultationTime(), result.getPatientName()))
+                .toList();
+        assertEquals(List.of(BulkAppointmentStatus.CREATED, BulkAppointmentStatus.CREATED, BulkAppointmentStatus.CREATED),
+                appointmentService.createAppointments(planned).stream().map(BulkAppointmentResultDto::getStatus).toList());
+    }
+
+    private static AppointmentPlanRequestDto request(Long doctorId, LocalDateTime time, String patientName) {
+        return new AppointmentPlanRequestDto(doctorId, time, patientName);
+    }
+}
@@ -0,0 +1,165 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.exception.ResourceAlreadyExistsException;
+import com.olvera.hospital.repository.AppointmentRepository;
+import com.olvera.hospital.scheduling.BookingConflict;
+import com.olvera.hospital.scheduling.BookingRules;
+import com.olvera.hospital.service.IAppointmentService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Hammers the booking path from many threads at once, and books next to bookings this instance did not make.
+ * Every test books on its own dates so the tests do not interfere through the shared database.
+ */
+@Slf4j
+@SpringBootTest
+class AppointmentServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sameSlotIsBookedOnlyOnce() throws Exception {
+        LocalDateTime time = LocalDateTime.of(2031, 1, 6, 10, 0);
+
+        Outcome outcome = hammer(64, attempt -> appointment(1L, 1L, time, "Patient " + attempt));
+
+        assertEquals(1, outcome.booked());
+        assertEquals(63, outcome.rejected());
+        assertEquals(1L, appointmentRepository.countActiveByDoctorIdAndConsultationTimeBetween(1L, time, time));
+    }
+
+    @Test
+    void doctorDailyCapHoldsUnderContention() throws Exception {
+        LocalDate day = LocalDate.of(2031, 2, 3);
+
+        Outcome outcome = hammer(48, attempt -> appointment(2L, (long) attempt % 5 + 1,
+                day.atTime(8, 0).plusMinutes(10L * attempt), "Patient " + attempt));
+
+        assertEquals(BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY, outcome.booked());
+        assertEquals(BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY,
+                appointmentRepository.countActiveByDoctorIdAndConsultationTimeBetween(2L, day.atStartOfDay(), day.atTime(23, 59)));
+    }
+
+    @Test
+    void patientSpacingHoldsUnderContention() throws Exception {
+        LocalDate day = LocalDate.of(2031, 3, 3);
+
+        Outcome outcome = hammer(40, attempt -> appointment((long) attempt % 5 + 1, (long) (attempt + 2) % 5 + 1,
+                day.atTime(9, attempt % 60), "Shared Patient"));
+
+        assertEquals(1, outcome.booked());
+    }
+
+    @Test
+    void bookingsOfAnotherInstanceAreEnforced() {
+        LocalDate day = LocalDate.of(2031, 4, 7);
+        // Inserted past this instance's occupancy index, as another instance would
+        jdbcTemplate.update("insert into appointment (doctor_id, consulting_room_id, consultation_time, " +
+                "patient_name, status) values (1, 1, ?, 'Elsewhere Patient', 'PENDING')", day.atTime(9, 0));
+        for (int hour = 10; hour < 10 + BookingRules.MAX_APPOINTMENTS_PER_DOCTOR_PER_DAY; hour++) {
+            jdbcTemplate.update("insert into appointment (doctor_id, consulting_room_id, consultation_time, " +
+                    "patient_name, status) values (3, 3, ?, ?, 'PENDING')", day.atTime(hour, 0), "Elsewhere " + hour);
+        }
+
+        assertEquals(BookingConflict.PATIENT_TOO_CLOSE.getMessage(), assertThrows(IllegalArgumentException.class,
+                () -> appointmentService.createAppointment(appointment(2L, 2L, day.atTime(9, 30),
+                        "Elsewhere Patient"))).getMessage());
+        assertEquals(BookingConflict.DOCTOR_DAILY_LIMIT.getMessage(), assertThrows(IllegalArgumentException.class,
+                () -> appointmentService.createAppointment(appointment(3L, 4L, day.atTime(8, 0),
+                        "Capped Patient"))).getMessage());
+    }
+
+    @Test
+    void independentBookingsProceedInParallel() throws Exception {
+        LocalDate firstDay = LocalDate.of(2032, 1, 1);
+        int bookings = 5 * 8 * 20;
+
+        long started = System.nanoTime();
+        Outcome outcome = hammer(bookings, attempt -> {
+            long doctorId = attempt % 5 + 1;
+            int slot = attempt / 5;
+            return appointment(doctorId, doctorId, firstDay.plusDays(slot / 8).atTime(9 + slot % 8, 0),
+                    "Patient " + attempt);
+        });
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        assertEquals(bookings, outcome.booked());
+        log.info("Booked {} appointments from {} threads in {} ms ({} bookings/s)", bookings, THREADS,
+                Math.round(seconds * 1000), Math.round(bookings / seconds));
+    }
+
+    private Outcome hammer(int attempts, IntFunction<AppointmentDto> appointments) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int attempt = 0; attempt < attempts; attempt++) {
+                AppointmentDto appointment = appointments.apply(attempt);
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    try {
+                        appointmentService.createAppointment(appointment);
+                        booked.incrementAndGet();
+                    } catch (ResourceAlreadyExistsException | IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new Outcome(booked.get(), rejected.get());
+    }
+
+    private static AppointmentDto appointment(Long doctorId, Long consultingRoomId, LocalDateTime time, String patientName) {
+        return AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(consultingRoomId)
+                .consultationTime(time)
+                .patientName(patientName)
+                .build();
+    }
+
+    private record Outcome(int booked, int rejected) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.dto.PatientMatchDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.service.IAppointmentService;
+import com.olvera.hospital.service.IPatientSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The patient search follows bookings, edits and cancellations through the appointment change events.
+ */
+@SpringBootTest
+class PatientSearchTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2041, 4, 8, 0, 0);
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private IPatientSearchService patientSearchService;
+
+    @Test
+    void searchFollowsTheAppointmentsOfAPatient() {
+        Appointment booked = appointmentService.createAppointment(AppointmentDto.builder()
+                .doctorId(1L)
+                .consultingRoomId(1L)
+                .consultationTime(DAY.withHour(9))
+                .patientName("Zoé Quintanilla")
+                .build());
+        assertEquals(List.of(new PatientMatchDto("Zoé Quintanilla", List.of(booked.getId()))),
+                patientSearchService.searchPatients("quint", 10));
+
+        appointmentService.editAppointment(booked.getId(), AppointmentDto.builder()
+                .doctorId(1L)
+                .consultingRoomId(1L)
+                .consultationTime(DAY.withHour(9))
+                .patientName("Zoe Quintanilla Ortiz")
+                .build());
+        assertEquals(List.of("Zoe Quintanilla Ortiz"), patientSearchService.searchPatients("zoe quin", 10).stream()
+                .map(PatientMatchDto::getPatientName)
+                .toList());
+
+        appointmentService.cancelAppointment(booked.getId());
+        assertTrue(patientSearchService.searchPatients("quint", 10).isEmpty());
+    }
+}
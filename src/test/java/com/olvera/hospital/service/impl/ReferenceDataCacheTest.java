@@ -0,0 +1,107 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.service.IReferenceDataService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the statements behind reference data lookups: a cached doctor or consulting room is never read again
+ * until it is evicted, and an unknown ID is read every time, so a doctor or room added later is found right away.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class ReferenceDataCacheTest {
+
+    private static final long NEW_DOCTOR_ID = 9_001L;
+
+    @Autowired
+    private IReferenceDataService referenceDataService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void clearCaches() {
+        referenceDataService.evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void cachedLookupsDoNotReachTheDatabase() {
+        referenceDataService.findDoctor(1L);
+        referenceDataService.findConsultingRoom(1L);
+        referenceDataService.findAllConsultingRooms();
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        assertEquals(1L, referenceDataService.findDoctor(1L).orElseThrow().getId());
+        assertEquals(1L, referenceDataService.findConsultingRoom(1L).orElseThrow().getId());
+        assertEquals(5, referenceDataService.findAllConsultingRooms().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void evictEndpointsClearTheirEntries() throws Exception {
+        referenceDataService.findDoctor(1L);
+        referenceDataService.findDoctor(2L);
+        referenceDataService.findConsultingRoom(1L);
+        referenceDataService.findAllConsultingRooms();
+        statistics.clear();
+
+        mockMvc.perform(delete("/api/reference-data/cache/doctors/1")).andExpect(status().isNoContent());
+        referenceDataService.findDoctor(1L);
+        referenceDataService.findDoctor(2L);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        // A room is evicted along with the list of every room
+        mockMvc.perform(delete("/api/reference-data/cache/consulting-rooms/1")).andExpect(status().isNoContent());
+        referenceDataService.findConsultingRoom(1L);
+        referenceDataService.findAllConsultingRooms();
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(delete("/api/reference-data/cache")).andExpect(status().isNoContent());
+        referenceDataService.findDoctor(2L);
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void unknownIdsAreNotCached() {
+        assertTrue(referenceDataService.findDoctor(NEW_DOCTOR_ID).isEmpty());
+        assertTrue(referenceDataService.findDoctor(NEW_DOCTOR_ID).isEmpty());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        jdbcTemplate.update("insert into doctor (id, first_name, last_name, specialty) " +
+                "values (?, 'New', 'Doctor', 'Cache Testing')", NEW_DOCTOR_ID);
+        try {
+            // Found without an evict
+            assertEquals("Doctor", referenceDataService.findDoctor(NEW_DOCTOR_ID).orElseThrow().getLastName());
+        } finally {
+            jdbcTemplate.update("delete from doctor where id = ?", NEW_DOCTOR_ID);
+            referenceDataService.evictDoctor(NEW_DOCTOR_ID);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.olvera.hospital.service.impl;
+
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.entity.Appointment;
+import com.olvera.hospital.exception.ResourceAlreadyExistsException;
+import com.olvera.hospital.service.IAppointmentService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the booking, query and cancel paths from virtual threads and fails if any of them parks while pinned
+ * to its carrier, which is what makes a virtual thread as expensive as a platform one. Only runs on Java 21+.
+ */
+@SpringBootTest
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadPinningTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Test
+    void appointmentPathsDoNotPinCarrierThreads() throws Exception {
+        LocalDate firstDay = LocalDate.of(2033, 1, 3);
+        Path dump = Files.createTempFile("pinning", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withoutThreshold().withStackTrace();
+            recording.start();
+
+            runOnVirtualThreads(200, attempt -> {
+                long doctorId = attempt % 5 + 1;
+                // Attempts five apart race each other for the same doctor and slot.
+                int slot = attempt / 10;
+                Appointment appointment = book(doctorId, firstDay.plusDays(slot / 8).atTime(9 + slot % 8, 0),
+                        "Patient " + attempt);
+                appointmentService.filterAppointments(doctorId, null, firstDay.atStartOfDay(),
+                        firstDay.plusDays(7).atStartOfDay(), PageRequest.of(0, 20));
+                if (appointment != null && attempt % 3 == 0) {
+                    appointmentService.cancelAppointment(appointment.getId());
+                }
+            });
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<String> pinned = RecordingFile.readAllEvents(dump).stream()
+                .map(VirtualThreadPinningTest::describe)
+                .toList();
+        Files.deleteIfExists(dump);
+
+        assertEquals(List.of(), pinned);
+    }
+
+    private Appointment book(long doctorId, LocalDateTime time, String patientName) {
+        try {
+            return appointmentService.createAppointment(AppointmentDto.builder()
+                    .doctorId(doctorId)
+                    .consultingRoomId(doctorId)
+                    .consultationTime(time)
+                    .patientName(patientName)
+                    .build());
+        } catch (ResourceAlreadyExistsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void runOnVirtualThreads(int tasks, Task task) throws Exception {
+        // Looked up reflectively so the test still compiles for the Java 17 baseline.
+        ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int attempt = 0; attempt < tasks; attempt++) {
+                int current = attempt;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    task.run(current);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String describe(RecordedEvent event) {
+        return event.getDuration().toMillis() + " ms pinned at " + event.getStackTrace().getFrames().stream()
+                .limit(12)
+                .map(VirtualThreadPinningTest::describe)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int attempt);
+    }
+}
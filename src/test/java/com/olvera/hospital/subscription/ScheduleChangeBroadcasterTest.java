@@ -0,0 +1,87 @@
+package com.olvera.hospital.subscription;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olvera.hospital.dto.AppointmentDto;
+import com.olvera.hospital.event.AppointmentChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleChangeBroadcasterTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2037, 2, 3, 9, 0);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Dispatches are only queued, never run: every subscriber behaves as a client that stopped reading
+    private final List<Runnable> dispatches = new ArrayList<>();
+
+    private final ScheduleChangeBroadcaster broadcaster = new ScheduleChangeBroadcaster(
+            new SubscriptionProperties(3, 1), new ObjectMapper().findAndRegisterModules(), meterRegistry,
+            dispatches::add);
+
+    @Test
+    void subscriberThatFallsBehindIsEvictedAlone() {
+        broadcaster.subscribe(new ScheduleFilter(1L, null, null));
+        broadcaster.subscribe(new ScheduleFilter(2L, null, TIME.toLocalDate()));
+        broadcaster.subscribe(new ScheduleFilter(null, null, LocalDate.of(2037, 2, 4)));
+
+        for (int i = 0; i < 3; i++) {
+            broadcaster.onAppointmentChanged(AppointmentChangedEvent.created(appointment(1L, TIME.plusHours(i))));
+        }
+        assertEquals(3, broadcaster.subscribers());
+
+        broadcaster.onAppointmentChanged(AppointmentChangedEvent.created(appointment(1L, TIME.plusHours(3))));
+        assertEquals(2, broadcaster.subscribers());
+        assertEquals(1.0, meterRegistry.get(ScheduleChangeBroadcaster.EVICTIONS_COUNTER).counter().count());
+
+        // Moving an appointment touches the schedules of both its slots
+        broadcaster.onAppointmentChanged(AppointmentChangedEvent.edited(appointment(2L, TIME),
+                appointment(3L, TIME.plusDays(1))));
+        assertEquals(2, broadcaster.subscribers());
+
+        dispatches.forEach(Runnable::run);
+        assertEquals(2.0, meterRegistry.get(ScheduleChangeBroadcaster.SUBSCRIBERS_GAUGE).gauge().value());
+    }
+
+    @Test
+    void heartbeatsEvictSubscribersThatStoppedReading() {
+        broadcaster.subscribe(new ScheduleFilter(9L, null, null));
+
+        for (int i = 0; i < 3; i++) {
+            broadcaster.heartbeat();
+        }
+        assertEquals(1, broadcaster.subscribers());
+
+        broadcaster.heartbeat();
+        assertEquals(0, broadcaster.subscribers());
+    }
+
+    @Test
+    void archivedAppointmentsAreNotSent() {
+        broadcaster.subscribe(new ScheduleFilter(1L, null, null));
+
+        for (int i = 0; i < 4; i++) {
+            broadcaster.onAppointmentChanged(AppointmentChangedEvent.archived(appointment(1L, TIME.plusHours(i))));
+        }
+        assertEquals(1, broadcaster.subscribers());
+        assertTrue(dispatches.isEmpty());
+    }
+
+    private static AppointmentDto appointment(Long doctorId, LocalDateTime consultationTime) {
+        return AppointmentDto.builder()
+                .doctorId(doctorId)
+                .consultingRoomId(doctorId)
+                .consultationTime(consultationTime)
+                .patientName("Subscribed Patient")
+                .build();
+    }
+}